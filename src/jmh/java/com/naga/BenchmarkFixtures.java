@@ -0,0 +1,122 @@
+package com.naga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naga.configuration.APIConfiguration;
+import com.naga.github.GitHubToolsService;
+import com.naga.github.PullRequestCache;
+import com.naga.github.PullRequestGraphQlFetcher;
+import com.naga.github.PullRequestIndex;
+import com.naga.github.RequestCoalescer;
+import com.naga.github.TestToolService;
+import com.naga.security.JwtUtility;
+import com.naga.tools.ToolRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds application components outside the Spring context for benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String JWT_SECRET = "benchmark-secret-benchmark-secret-0123456789";
+    public static final String SUBJECT = "spring_boot_ai_mcp_client";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static byte[] resource(String path) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing benchmark resource " + path);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JwtUtility jwtUtility() {
+        return jwtUtility(10_000);
+    }
+
+    public static JwtUtility jwtUtility(long maxVerifiedTokens) {
+        JwtUtility jwtUtility = new JwtUtility(JWT_SECRET, maxVerifiedTokens, 10_000, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtility, "ttl", 3600L);
+        ReflectionTestUtils.setField(jwtUtility, "refreshWindow", 60L);
+        ReflectionTestUtils.setField(jwtUtility, "tokenIssuer", "spring_boot_ai_mcp_server");
+        return jwtUtility;
+    }
+
+    /**
+     * A WebClient that answers every request with the recorded 100-PR listing, without any network I/O.
+     */
+    public static WebClient recordedGitHubWebClient() {
+        byte[] pulls = resource("/github/pulls-100.json");
+        return WebClient.builder()
+                .baseUrl("https://api.github.com/repos/")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.ETAG, "\"recorded\"")
+                        .body(new String(pulls, StandardCharsets.UTF_8))
+                        .build()))
+                .build();
+    }
+
+    /**
+     * A tool registry over the GitHub and test tool beans, initialized as it would be at startup.
+     */
+    public static ToolRegistry toolRegistry(GitHubToolsService gitHubToolsService) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("gitHubToolsService", gitHubToolsService);
+        beanFactory.addBean("testToolService", new TestToolService());
+        ToolRegistry registry = new ToolRegistry(beanFactory, new ObjectMapper(), "com.naga.github",
+                Schedulers.boundedElastic());
+        registry.afterSingletonsInstantiated();
+        return registry;
+    }
+
+    public static GitHubToolsService gitHubToolsService(WebClient webClient) {
+        return gitHubToolsService(webClient, "http://localhost/repos/", "rest");
+    }
+
+    /**
+     * A GitHub tools service with an empty cache, reading through the given client and fetch strategy.
+     */
+    public static GitHubToolsService gitHubToolsService(WebClient webClient, String apiBasePath, String fetchStrategy) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        APIConfiguration apiConfiguration = new APIConfiguration();
+        ReflectionTestUtils.setField(apiConfiguration, "gitHubApiBasePath", apiBasePath);
+        URI apiRoot = apiConfiguration.gitHubApiRoot();
+        GitHubToolsService service = new GitHubToolsService(webClient,
+                new PullRequestCache(meterRegistry, 256, 3600, 3600),
+                new RequestCoalescer(meterRegistry),
+                new PullRequestIndex(meterRegistry),
+                new PullRequestGraphQlFetcher(webClient, apiRoot, "", "benchmark", 100, 10, 5),
+                apiRoot);
+        ReflectionTestUtils.setField(service, "githubOwner", "nagachary");
+        ReflectionTestUtils.setField(service, "githubRepo", "java-must-read");
+        ReflectionTestUtils.setField(service, "gitHubToken", "benchmark");
+        ReflectionTestUtils.setField(service, "fetchStrategy", fetchStrategy);
+        ReflectionTestUtils.setField(service, "perPage", 100);
+        ReflectionTestUtils.setField(service, "pageConcurrency", 4);
+        ReflectionTestUtils.setField(service, "maxItems", 0);
+        ReflectionTestUtils.setField(service, "diffMaxBytes", 65536);
+        ReflectionTestUtils.setField(service, "diffMaxLines", 2000);
+        return service;
+    }
+}
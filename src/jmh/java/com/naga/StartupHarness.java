@@ -0,0 +1,212 @@
+package com.naga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naga.github.GitHubStubServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the packaged server as a child JVM, first as the plain jar, then as the
+ * {@code fast-start} build (Spring AOT + CDS archive), and measures from process launch
+ * to {@code ApplicationReadyEvent} (the "Application started successfully" line logged by
+ * {@link SpringBootAiMcpServerApplication#onApplicationReady()}) and to the first successful
+ * {@code getAllPullRequests} call against {@link GitHubStubServer}. Prints the median and
+ * minimum of {@code -Dstartup.runs} (default 5) starts per mode.
+ * <p>
+ * Build both first; the fast-start package keeps the plain jar in {@code target/}:
+ * <pre>
+ * mvn -Pfast-start package -DskipTests
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.StartupHarness
+ * </pre>
+ * Override the artifacts with {@code -Dstartup.jar} and {@code -Dstartup.application}
+ * (the extracted directory holding the jar and {@code application.jsa}).
+ */
+public class StartupHarness {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String API_KEY = "startup-harness";
+    private static final String READY_LINE = "Application started successfully";
+    private static final Pattern STARTED_LINE =
+            Pattern.compile("Started \\w+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+
+    private record Start(long readyMillis, long firstCallMillis, double springSeconds) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        String jarProperty = System.getProperty("startup.jar");
+        Path jar = jarProperty != null ? Path.of(jarProperty) : packagedJar();
+        Path application = Path.of(System.getProperty("startup.application", "target/application"));
+        Path applicationJar = application.resolve(jar.getFileName());
+        Path archive = application.resolve("application.jsa");
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> jarCommand = List.of(java, "-jar", jar.toString());
+        List<String> fastStartCommand = List.of(java, "-XX:SharedArchiveFile=" + archive,
+                "-Dspring.aot.enabled=true", "-jar", applicationJar.toString());
+
+        List<String> results = new ArrayList<>();
+        try (GitHubStubServer stub = new GitHubStubServer()) {
+            stub.serve("/repos/", "application/json", BenchmarkFixtures.resource("/github/pulls-100.json"));
+            results.add(run("jar", jarCommand, stub, runs));
+            if (Files.exists(archive)) {
+                results.add(run("aot+cds", fastStartCommand, stub, runs));
+            } else {
+                System.out.println("No " + archive + "; build it with mvn -Pfast-start package");
+            }
+        }
+
+        System.out.printf("%nruns=%d (median / min, ms from process launch)%n", runs);
+        System.out.printf("%-8s %17s %17s %17s%n", "mode", "ready", "first tool call", "Spring 'Started'");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(String mode, List<String> command, GitHubStubServer stub, int runs) throws Exception {
+        long[] ready = new long[runs];
+        long[] firstCall = new long[runs];
+        long[] spring = new long[runs];
+        // One unmeasured start warms the page cache
+        for (int i = -1; i < runs; i++) {
+            Start start = start(command, stub);
+            if (i >= 0) {
+                ready[i] = start.readyMillis();
+                firstCall[i] = start.firstCallMillis();
+                spring[i] = (long) (start.springSeconds() * 1000);
+                System.out.printf("%s #%d: ready=%d ms, first tool call=%d ms%n",
+                        mode, i + 1, start.readyMillis(), start.firstCallMillis());
+            }
+        }
+        return String.format("%-8s %17s %17s %17s", mode, stats(ready), stats(firstCall), stats(spring));
+    }
+
+    private static Start start(List<String> command, GitHubStubServer stub) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of(
+                "--server.port=" + port,
+                "--logging.file.name=",
+                "--mcp.auth.api-key=" + API_KEY,
+                "--mcp.auth.jwt-secret=" + BenchmarkFixtures.JWT_SECRET,
+                "--github.api.bearer.token=harness",
+                "--github.api.basePath=" + stub.baseUrl() + "/repos/",
+                "--github.snapshot.enabled=false"));
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(arguments).redirectErrorStream(true).start();
+        try {
+            CompletableFuture<Long> ready = new CompletableFuture<>();
+            CompletableFuture<Double> springSeconds = new CompletableFuture<>();
+            Thread reader = new Thread(() -> readLog(process, launched, ready, springSeconds), "startup-log");
+            reader.setDaemon(true);
+            reader.start();
+
+            long firstCall = firstToolCall(port, launched, process);
+            long readyMillis = ready.get(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            return new Start(readyMillis, firstCall, springSeconds.getNow(Double.NaN));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void readLog(Process process, long launched, CompletableFuture<Long> ready,
+                                CompletableFuture<Double> springSeconds) {
+        try (BufferedReader log = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> tail = new ArrayList<>();
+            for (String line; (line = log.readLine()) != null; ) {
+                if (line.contains(READY_LINE)) {
+                    ready.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched));
+                }
+                Matcher started = STARTED_LINE.matcher(line);
+                if (started.find()) {
+                    springSeconds.complete(Double.parseDouble(started.group(1)));
+                }
+                if (!ready.isDone()) {
+                    tail.add(line);
+                }
+            }
+            ready.completeExceptionally(new IllegalStateException(
+                    "Server exited before it was ready:\n" + String.join("\n", tail)));
+        } catch (IOException e) {
+            ready.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Polls for a token and a successful tool call until both succeed; returns the time since launch.
+     */
+    private static long firstToolCall(int port, long launched, Process process) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        URI base = URI.create("http://127.0.0.1:" + port);
+        long deadline = launched + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && process.isAlive()) {
+            try {
+                HttpResponse<String> token = http.send(HttpRequest.newBuilder(base.resolve("/mcp/auth/token"))
+                        .header("X-API-KEY", API_KEY)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                if (token.statusCode() == 200) {
+                    String accessToken = objectMapper.readTree(token.body()).get("accessToken").asText();
+                    HttpResponse<String> call = http.send(HttpRequest.newBuilder(base.resolve("/mcp/tools/call"))
+                            .header("Authorization", "Bearer " + accessToken)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"name\":\"getAllPullRequests\",\"arguments\":{\"state\":\"open\"}}"))
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    if (call.statusCode() == 200 && call.body().contains("\"success\"")) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+                    }
+                }
+            } catch (IOException e) {
+                // Not listening (or not answering) yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No successful tool call within " + START_TIMEOUT);
+    }
+
+    private static Path packagedJar() throws IOException {
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(Path.of("target"),
+                "spring_boot_ai_mcp_server-*.jar")) {
+            for (Path jar : jars) {
+                return jar;
+            }
+        }
+        throw new IllegalStateException("No packaged jar in target/; run mvn package first");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String stats(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] + " / " + sorted[0];
+    }
+}
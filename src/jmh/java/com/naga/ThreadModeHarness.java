@@ -0,0 +1,169 @@
+package com.naga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naga.github.GitHubStubServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the application once per thread mode (platform request threads, then the
+ * {@code virtual-threads} profile) against {@link GitHubStubServer}, holds a number of
+ * {@code /mcp/sse} connections open and drives concurrent {@code /mcp/tools/call}
+ * requests (alternating the blocking-style {@code echo} tool and {@code getAllPullRequests}).
+ * Prints throughput, latency percentiles, peak JVM threads and heap for each mode.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.ThreadModeHarness
+ * -Dload.sse=5000 -Dload.calls=50000 -Dload.concurrency=1000}
+ * <p>
+ * Client and server share the JVM, so thread and heap figures include the (fixed-size)
+ * Reactor Netty client; compare the two modes rather than reading absolute numbers.
+ */
+public class ThreadModeHarness {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String API_KEY = "thread-mode-harness";
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = Arrays.asList(System.getProperty("load.modes", "platform,virtual").split(","));
+        int sseConnections = Integer.getInteger("load.sse", 2_000);
+        int calls = Integer.getInteger("load.calls", 20_000);
+        int concurrency = Integer.getInteger("load.concurrency", 500);
+
+        List<String> results = new ArrayList<>();
+        try (GitHubStubServer stub = new GitHubStubServer()) {
+            stub.serve("/repos/", "application/json", BenchmarkFixtures.resource("/github/pulls-100.json"));
+            for (String mode : modes) {
+                results.add(run(mode.trim(), stub, sseConnections, calls, concurrency));
+            }
+        }
+
+        System.out.printf("%nsse=%d calls=%d concurrency=%d%n", sseConnections, calls, concurrency);
+        System.out.printf("%-9s %10s %9s %9s %9s %8s %7s %12s%n",
+                "mode", "calls/s", "p50 ms", "p99 ms", "max ms", "errors", "threads", "heap MB");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(String mode, GitHubStubServer stub, int sseConnections, int calls, int concurrency)
+            throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringBootAiMcpServerApplication.class);
+        // Passed as arguments: builder properties are defaults, which application.properties overrides
+        String[] arguments = {
+                "--server.port=0",
+                "--server.tomcat.max-connections=20000",
+                // application.properties logs every request at DEBUG, which would dominate both modes
+                "--logging.level.root=WARN",
+                "--logging.level.com.naga.github=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.springframework.ai.mcp=WARN",
+                "--logging.file.name=",
+                "--mcp.auth.api-key=" + API_KEY,
+                "--mcp.auth.jwt-secret=" + BenchmarkFixtures.JWT_SECRET,
+                "--github.api.bearer.token=harness",
+                "--github.api.basePath=" + stub.baseUrl() + "/repos/",
+                "--github.cache.ttl-seconds=1",
+                "--github.snapshot.enabled=false",
+                // One subject drives the whole load
+                "--mcp.admission.enabled=false"};
+        if (mode.equals("virtual")) {
+            builder.profiles("virtual-threads");
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(arguments)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.create(ConnectionProvider.create("harness", concurrency))
+                    .baseUrl("http://127.0.0.1:" + port);
+            String token = objectMapper.readTree(http.headers(headers -> headers.add("X-API-KEY", API_KEY))
+                            .post()
+                            .uri("/mcp/auth/token")
+                            .responseContent()
+                            .aggregate()
+                            .asString()
+                            .block(Duration.ofSeconds(10)))
+                    .get("accessToken").asText();
+            HttpClient authed = http.headers(headers -> headers
+                    .add("Authorization", "Bearer " + token)
+                    .add("Content-Type", "application/json"));
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            threads.resetPeakThreadCount();
+
+            // Hold SSE connections open for the whole run.
+            AtomicInteger sseOpen = new AtomicInteger();
+            HttpClient sse = HttpClient.create(ConnectionProvider.newConnection())
+                    .baseUrl("http://127.0.0.1:" + port)
+                    .headers(headers -> headers.add("Authorization", "Bearer " + token));
+            List<Disposable> streams = new ArrayList<>(sseConnections);
+            for (int i = 0; i < sseConnections; i++) {
+                streams.add(sse.get().uri("/mcp/sse")
+                        .response((response, body) -> {
+                            if (response.status().code() == 200) {
+                                sseOpen.incrementAndGet();
+                            }
+                            return body;
+                        })
+                        .subscribe(buffer -> { }, error -> { }));
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+            while (sseOpen.get() < sseConnections && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            long[] latencies = new long[calls];
+            AtomicInteger errors = new AtomicInteger();
+            long start = System.nanoTime();
+            Flux.range(0, calls)
+                    .flatMap(i -> call(authed, i)
+                            .elapsed()
+                            .doOnNext(result -> {
+                                latencies[i] = result.getT1();
+                                if (!result.getT2()) {
+                                    errors.incrementAndGet();
+                                }
+                            })
+                            .onErrorResume(e -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            }), concurrency)
+                    .blockLast();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            int peakThreads = threads.getPeakThreadCount();
+            streams.forEach(Disposable::dispose);
+
+            Arrays.sort(latencies);
+            return String.format("%-9s %10.0f %9d %9d %9d %8d %7d %12.1f%s",
+                    mode, calls / seconds, latencies[calls / 2], latencies[(int) (calls * 0.99)],
+                    latencies[calls - 1], errors.get(), peakThreads, heap / 1e6,
+                    sseOpen.get() < sseConnections ? "  (only " + sseOpen.get() + " SSE connections opened)" : "");
+        }
+    }
+
+    private static Mono<Boolean> call(HttpClient http, int i) {
+        String body = i % 2 == 0
+                ? "{\"name\":\"echo\",\"arguments\":{\"input\":\"call-" + i + "\"}}"
+                : "{\"name\":\"getAllPullRequests\",\"arguments\":{\"state\":\"open\"}}";
+        return http.post()
+                .uri("/mcp/tools/call")
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .responseSingle((response, content) -> content.asString()
+                        .map(json -> response.status().code() == 200 && json.contains("\"success\"")));
+    }
+}
@@ -0,0 +1,68 @@
+package com.naga.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.naga.BenchmarkFixtures;
+import com.naga.logging.RequestLogSampler;
+import com.naga.sse.SseSessionHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /mcp/tools/call} dispatch and response serialization for a cached
+ * getAllPullRequests result (upstream is warmed once in setup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class McpToolCallBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SseSessionHub sseSessionHub;
+    private McpSseController controller;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setUp() {
+        sseSessionHub = new SseSessionHub(new SimpleMeterRegistry(), 30, 32, 0);
+        controller = new McpSseController(BenchmarkFixtures.toolRegistry(
+                BenchmarkFixtures.gitHubToolsService(BenchmarkFixtures.recordedGitHubWebClient())), sseSessionHub, new RequestLogSampler(1.0));
+        request = Map.of("name", "getAllPullRequests", "arguments", Map.of("state", "open"));
+        callTool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sseSessionHub.destroy();
+    }
+
+    @Benchmark
+    public Map<String, Object> dispatch() {
+        return controller.callTool(request).block();
+    }
+
+    @Benchmark
+    public byte[] callTool() {
+        try {
+            return objectMapper.writeValueAsBytes(controller.callTool(request).block());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
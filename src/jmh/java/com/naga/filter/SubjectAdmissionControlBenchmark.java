@@ -0,0 +1,62 @@
+package com.naga.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admitting and releasing a call with {@link SubjectAdmissionControl} from every core, all on
+ * one subject (every call contends on the same bucket) and spread over 100k subjects. Budgets
+ * are set high enough that every call is admitted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class SubjectAdmissionControlBenchmark {
+
+    private static final int SUBJECTS = 100_000;
+
+    private SubjectAdmissionControl admissionControl;
+    private String[] subjects;
+
+    @Setup
+    public void setUp() {
+        admissionControl = new SubjectAdmissionControl(new SimpleMeterRegistry(),
+                1e9, 1_000_000, 1_000, 1_000_000, 600, SUBJECTS);
+        subjects = new String[SUBJECTS];
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public SubjectAdmissionControl.Outcome oneSubject() {
+        SubjectAdmissionControl.Admission admission = admissionControl.admit("client-0", true);
+        admission.release();
+        return admission.outcome();
+    }
+
+    @Benchmark
+    public SubjectAdmissionControl.Outcome manySubjects() {
+        SubjectAdmissionControl.Admission admission = admissionControl.admit(
+                subjects[ThreadLocalRandom.current().nextInt(SUBJECTS)], true);
+        admission.release();
+        return admission.outcome();
+    }
+}
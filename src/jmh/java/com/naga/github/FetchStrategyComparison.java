@@ -0,0 +1,132 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.naga.BenchmarkFixtures;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the REST and GraphQL fetch strategies ({@code github.fetch.strategy}) against
+ * {@link GitHubStubServer}: bytes received, upstream requests and latency of a cold-cache
+ * listing of one repository and of a fan-out over several.
+ * <p>
+ * The REST stub serves the recorded 100-PR listing; the GraphQL stub answers every alias
+ * of a document with the same 100 PRs, reduced to the fields the GraphQL query selects.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.github.FetchStrategyComparison}
+ */
+public class FetchStrategyComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws Exception {
+        byte[] pulls = BenchmarkFixtures.resource("/github/pulls-100.json");
+        ArrayNode nodes = graphQlNodes(MAPPER.readTree(pulls));
+
+        try (GitHubStubServer stub = new GitHubStubServer()) {
+            stub.serve("/repos/", "application/json", pulls)
+                    .serve("/graphql", "application/json", request -> graphQlResponse(request, nodes));
+            WebClient webClient = WebClient.builder()
+                    .baseUrl(stub.baseUrl() + "/repos/")
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                    .build();
+
+            for (int repositories : new int[]{1, 8}) {
+                for (String strategy : new String[]{"rest", "graphql"}) {
+                    run(stub, webClient, strategy, repositories);
+                }
+            }
+        }
+    }
+
+    private static void run(GitHubStubServer stub, WebClient webClient, String strategy, int repositories) {
+        String names = IntStream.range(0, repositories)
+                .mapToObj(i -> "nagachary/repo-" + i)
+                .collect(Collectors.joining(","));
+        long[] nanos = new long[ITERATIONS];
+        long bytes = 0;
+        long requests = 0;
+        int pullRequests = 0;
+
+        for (int i = -10; i < ITERATIONS; i++) {
+            // A fresh service per iteration, so every listing misses the cache
+            GitHubToolsService service = BenchmarkFixtures.gitHubToolsService(webClient,
+                    stub.baseUrl() + "/repos/", strategy);
+            MultiRepositoryToolsService fanOut = new MultiRepositoryToolsService(service, names, 8, 10, 100, 0, 600);
+            long bytesBefore = stub.bytesSent();
+            long requestsBefore = stub.requests();
+
+            long start = System.nanoTime();
+            MultiRepositoryPullRequests result = fanOut.getPullRequestsAcrossRepositories("all", null).block();
+            long elapsed = System.nanoTime() - start;
+
+            if (!result.errors().isEmpty()) {
+                throw new IllegalStateException(strategy + ": " + result.errors());
+            }
+            if (i >= 0) {
+                nanos[i] = elapsed;
+                bytes += stub.bytesSent() - bytesBefore;
+                requests += stub.requests() - requestsBefore;
+                pullRequests = result.pullRequests().size();
+            }
+        }
+
+        Arrays.sort(nanos);
+        System.out.printf("%-8s repositories=%d PRs=%d requests/call=%.1f KB/call=%.1f p50=%.2fms p90=%.2fms%n",
+                strategy, repositories, pullRequests, (double) requests / ITERATIONS,
+                bytes / 1024.0 / ITERATIONS, nanos[ITERATIONS / 2] / 1e6, nanos[ITERATIONS * 9 / 10] / 1e6);
+    }
+
+    /**
+     * The recorded REST objects as the nodes of the GraphQL query in {@link PullRequestGraphQlFetcher}.
+     */
+    private static ArrayNode graphQlNodes(JsonNode pulls) {
+        ArrayNode nodes = MAPPER.createArrayNode();
+        for (JsonNode pull : pulls) {
+            ObjectNode node = nodes.addObject();
+            node.put("number", pull.path("number").asInt());
+            node.put("title", pull.path("title").asText());
+            node.put("state", "open".equals(pull.path("state").asText()) ? "OPEN"
+                    : pull.path("merged_at").isNull() ? "CLOSED" : "MERGED");
+            node.putObject("author").put("login", pull.path("user").path("login").asText());
+            node.put("createdAt", pull.path("created_at").asText());
+            node.put("updatedAt", pull.path("updated_at").asText());
+            node.put("url", pull.path("html_url").asText());
+        }
+        return nodes;
+    }
+
+    private static byte[] graphQlResponse(byte[] request, ArrayNode nodes) {
+        try {
+            JsonNode variables = MAPPER.readTree(request).path("variables");
+            List<String> aliases = new ArrayList<>();
+            variables.fieldNames().forEachRemaining(name -> {
+                if (name.startsWith("o")) {
+                    aliases.add("r" + name.substring(1));
+                }
+            });
+            ObjectNode data = MAPPER.createObjectNode();
+            for (String alias : aliases) {
+                ObjectNode connection = data.putObject(alias).putObject("pullRequests");
+                connection.putObject("pageInfo").put("hasNextPage", false).putNull("endCursor");
+                connection.set("nodes", nodes);
+            }
+            ObjectNode response = MAPPER.createObjectNode();
+            response.set("data", data);
+            return MAPPER.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.naga.github;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local HTTP stand-in for api.github.com that serves recorded responses and
+ * enforces a primary rate limit with GitHub's X-RateLimit-* headers.
+ */
+public class GitHubStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger remaining = new AtomicInteger(Integer.MAX_VALUE);
+    private volatile int limit = Integer.MAX_VALUE;
+    private volatile long resetEpochSecond = System.currentTimeMillis() / 1000 + 3600;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong limitedResponses = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private record Route(String contentType, Function<byte[], byte[]> responder, Path file,
+                         Map<String, String> headers) {
+    }
+
+    public GitHubStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /** Base URL of the stub, without a trailing slash. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Serves the body for every request whose path starts with the prefix (longest prefix wins). */
+    public GitHubStubServer serve(String pathPrefix, String contentType, byte[] body) {
+        routes.put(pathPrefix, new Route(contentType, request -> body, null, Map.of()));
+        return this;
+    }
+
+    /** Answers requests under the prefix with a body computed from the request body (e.g. GraphQL). */
+    public GitHubStubServer serve(String pathPrefix, String contentType, Function<byte[], byte[]> responder) {
+        routes.put(pathPrefix, new Route(contentType, responder, null, Map.of()));
+        return this;
+    }
+
+    /**
+     * Streams a file from disk for requests under the prefix, with extra response headers
+     * (e.g. a Link header), so recordings larger than the heap can be served.
+     */
+    public GitHubStubServer serveFile(String pathPrefix, String contentType, Path file, Map<String, String> headers) {
+        routes.put(pathPrefix, new Route(contentType, null, file, headers));
+        return this;
+    }
+
+    /** Allows this many requests until the window resets in the given number of seconds. */
+    public GitHubStubServer rateLimit(int limit, long resetInSeconds) {
+        this.limit = limit;
+        this.remaining.set(limit);
+        this.resetEpochSecond = System.currentTimeMillis() / 1000 + resetInSeconds;
+        return this;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long limitedResponses() {
+        return limitedResponses.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+
+        int left = remaining.getAndUpdate(value -> Math.max(0, value - 1));
+        if (limit != Integer.MAX_VALUE) {
+            exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(limit));
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(Math.max(0, left - 1)));
+            exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(resetEpochSecond));
+        }
+        if (left <= 0) {
+            limitedResponses.incrementAndGet();
+            respond(exchange, 403, "application/json",
+                    "{\"message\":\"API rate limit exceeded\"}".getBytes());
+            return;
+        }
+
+        Route route = null;
+        int longest = -1;
+        for (Map.Entry<String, Route> entry : routes.entrySet()) {
+            if (path.startsWith(entry.getKey()) && entry.getKey().length() > longest) {
+                route = entry.getValue();
+                longest = entry.getKey().length();
+            }
+        }
+        if (route == null) {
+            respond(exchange, 404, "application/json", "{\"message\":\"Not Found\"}".getBytes());
+            return;
+        }
+        if (route.file() != null) {
+            route.headers().forEach(exchange.getResponseHeaders()::add);
+            exchange.getResponseHeaders().add("Content-Type", route.contentType());
+            exchange.sendResponseHeaders(200, Files.size(route.file()));
+            try (InputStream in = Files.newInputStream(route.file()); OutputStream out = exchange.getResponseBody()) {
+                byte[] chunk = new byte[64 * 1024];
+                for (int read; (read = in.read(chunk)) > 0; ) {
+                    out.write(chunk, 0, read);
+                    bytesSent.addAndGet(read);
+                }
+            } catch (IOException e) {
+                // The client stopped reading (e.g. its budget ran out)
+            }
+            return;
+        }
+        respond(exchange, 200, route.contentType(), route.responder().apply(requestBody));
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a recorded 100-PR {@code /pulls} response: the previous
+ * {@code bodyToFlux(JsonNode.class)} plus HashMap projection against {@link PullRequestJsonDecoder}.
+ * Scores are per pull request; run with {@code -prof gc} for {@code gc.alloc.rate.norm} (bytes per PR).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PullRequestDecodingBenchmark {
+
+    private static final int PULL_REQUESTS = 100;
+    private static final ResolvableType JSON_NODE = ResolvableType.forClass(JsonNode.class);
+
+    /** Size of each simulated network chunk. */
+    @Param({"8192"})
+    public int chunkSize;
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final Jackson2JsonDecoder jsonNodeDecoder = new Jackson2JsonDecoder(new ObjectMapper());
+    private byte[][] chunks;
+
+    @Setup
+    public void loadPayload() throws IOException {
+        byte[] payload;
+        try (InputStream in = getClass().getResourceAsStream("/github/pulls-100.json")) {
+            payload = in.readAllBytes();
+        }
+        List<byte[]> split = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += chunkSize) {
+            split.add(Arrays.copyOfRange(payload, offset, Math.min(payload.length, offset + chunkSize)));
+        }
+        chunks = split.toArray(new byte[0][]);
+
+        if (jsonNodeToMap().size() != PULL_REQUESTS || streamingProjection().size() != PULL_REQUESTS) {
+            throw new IllegalStateException("Fixture did not decode to " + PULL_REQUESTS + " pull requests");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PULL_REQUESTS)
+    public List<Map<String, Object>> jsonNodeToMap() {
+        List<JsonNode> pullRequests = jsonNodeDecoder
+                .decode(body(), JSON_NODE, MediaType.APPLICATION_JSON, null)
+                .cast(JsonNode.class)
+                .collectList()
+                .block();
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (JsonNode pr : pullRequests) {
+            Map<String, Object> prMap = new HashMap<>();
+            prMap.put("number", pr.get("number").asInt());
+            prMap.put("title", pr.get("title").asText());
+            prMap.put("state", pr.get("state").asText());
+            prMap.put("author", pr.get("user").get("login").asText());
+            prMap.put("created_at", pr.get("created_at").asText());
+            prMap.put("url", pr.get("html_url").asText());
+            result.add(prMap);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PULL_REQUESTS)
+    public List<PullRequestSummary> streamingProjection() {
+        return PullRequestJsonDecoder.decode(body()).collectList().block();
+    }
+
+    private Flux<DataBuffer> body() {
+        return Flux.fromArray(chunks).map(bufferFactory::wrap);
+    }
+}
@@ -0,0 +1,271 @@
+package com.naga.github;
+
+import com.naga.BenchmarkFixtures;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@code getPullRequestDiff} and {@code getPullRequestFiles} against {@link GitHubStubServer}
+ * serving a synthetic diff of {@code -Ddiff.mb} MB (default 200), 30 pages of 100 files and a
+ * files page with one {@code -Ddiff.patchMb} MB (default 16) patch, and fails unless the peak
+ * live heap (after each GC) stays within {@code -Ddiff.maxHeapGrowthMb} (default 32) of the idle
+ * baseline and Netty reports no leaked buffers. The oversized patch is allowed its own size
+ * twice over on top of that, since the JSON parser holds one patch as chars while it is read.
+ * Leak detection runs at the paranoid level, so every buffer is tracked.
+ * <p>
+ * A {@code bodyToMono(String)} read of the same diff is printed for contrast when the heap
+ * has room for it.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.github.PullRequestDiffHarness}
+ */
+public class PullRequestDiffHarness {
+
+    private static final AtomicLong leaks = new AtomicLong();
+    private static final AtomicLong peakLiveBytes = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        // Before any buffer class is loaded, so every allocator picks up the counting detector
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        ResourceLeakDetectorFactory.setResourceLeakDetectorFactory(new CountingLeakDetectorFactory());
+
+        int diffMb = Integer.getInteger("diff.mb", 200);
+        long maxGrowth = Long.getLong("diff.maxHeapGrowthMb", 32) * 1024 * 1024;
+        long patchBytes = Long.getLong("diff.patchMb", 16) * 1024 * 1024;
+        Path diff = Files.createTempFile("pull-request", ".diff");
+        Path filesPage = Files.createTempFile("pull-request-files", ".json");
+        Path largePatchPage = Files.createTempFile("pull-request-files-large-patch", ".json");
+        try {
+            writeDiff(diff, (long) diffMb * 1024 * 1024);
+            writeFilesPage(filesPage);
+            writeLargePatchPage(largePatchPage, patchBytes);
+            watchGarbageCollections();
+
+            try (GitHubStubServer stub = new GitHubStubServer()) {
+                stub.serveFile("/repos/nagachary/java-must-read/pulls/1", "application/vnd.github.diff",
+                                diff, Map.of())
+                        .serveFile("/repos/nagachary/java-must-read/pulls/1/files", "application/json", filesPage,
+                                Map.of("Link", "<" + stub.baseUrl()
+                                        + "/repos/nagachary/java-must-read/pulls/1/files?page=30>; rel=\"last\""))
+                        .serveFile("/repos/nagachary/java-must-read/pulls/2/files", "application/json",
+                                largePatchPage, Map.of());
+                WebClient webClient = WebClient.builder().baseUrl(stub.baseUrl() + "/repos/").build();
+                GitHubToolsService budgeted = BenchmarkFixtures.gitHubToolsService(webClient,
+                        stub.baseUrl() + "/repos/", "rest");
+                // Patch lines still capped, but the byte budget never fills: every byte is read
+                GitHubToolsService unbounded = BenchmarkFixtures.gitHubToolsService(webClient,
+                        stub.baseUrl() + "/repos/", "rest");
+                ReflectionTestUtils.setField(unbounded, "diffMaxBytes", Integer.MAX_VALUE);
+
+                run(budgeted.getPullRequestFiles(1), "warm-up", stub, Long.MAX_VALUE);
+                long baseline = liveHeapAfterGc();
+                System.out.printf("diff=%d MB, files=30 pages, large patch=%d MB, baseline live heap=%.1f MB%n",
+                        diffMb, patchBytes / 1048576, baseline / 1048576.0);
+
+                boolean ok = run(budgeted.getPullRequestDiff(1), "diff, default budget", stub, baseline + maxGrowth);
+                ok &= run(unbounded.getPullRequestDiff(1), "diff, whole body", stub, baseline + maxGrowth);
+                ok &= run(budgeted.getPullRequestFiles(1), "files, default budget", stub, baseline + maxGrowth);
+                ok &= run(unbounded.getPullRequestFiles(1), "files, all pages", stub, baseline + maxGrowth);
+                ok &= run(budgeted.getPullRequestFiles(2), "files, large patch, default budget", stub,
+                        baseline + maxGrowth + 2 * patchBytes);
+                ok &= run(unbounded.getPullRequestFiles(2), "files, large patch, all bytes", stub,
+                        baseline + maxGrowth + 2 * patchBytes);
+
+                if (Runtime.getRuntime().maxMemory() > 6L * Files.size(diff)) {
+                    Flux<Integer> naive = WebClient.builder()
+                            .baseUrl(stub.baseUrl() + "/repos/")
+                            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                            .build()
+                            .get().uri("/nagachary/java-must-read/pulls/1")
+                            .retrieve().bodyToMono(String.class)
+                            .map(String::length).flux();
+                    run(naive, "naive bodyToMono(String), for contrast", stub, Long.MAX_VALUE);
+                }
+
+                // Leaks are reported when a later buffer is tracked after the GC found the lost one
+                System.gc();
+                run(budgeted.getPullRequestFiles(1), "leak check", stub, Long.MAX_VALUE);
+                System.out.printf("leaked buffers: %d%n", leaks.get());
+                if (!ok || leaks.get() > 0) {
+                    throw new IllegalStateException("diff/files streaming exceeded its heap bound or leaked buffers");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(diff);
+            Files.deleteIfExists(filesPage);
+            Files.deleteIfExists(largePatchPage);
+        }
+    }
+
+    private static boolean run(Flux<?> items, String name, GitHubStubServer stub, long maxLiveBytes) {
+        long before = liveHeapAfterGc();
+        peakLiveBytes.set(before);
+        long bytesBefore = stub.bytesSent();
+        long start = System.nanoTime();
+
+        long count = items.count().block();
+
+        long elapsed = System.nanoTime() - start;
+        long peak = peakLiveBytes.get();
+        boolean ok = peak <= maxLiveBytes;
+        System.out.printf("%-40s items=%-6d sent=%7.1f MB  %6d ms  peak live heap=%7.1f MB %s%n", name, count,
+                (stub.bytesSent() - bytesBefore) / 1048576.0, elapsed / 1_000_000, peak / 1048576.0,
+                ok ? "" : "EXCEEDS " + maxLiveBytes / 1048576 + " MB");
+        return ok;
+    }
+
+    private static long liveHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Tracks the highest heap use left after any collection, i.e. the peak of live data.
+     */
+    private static void watchGarbageCollections() {
+        Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getName)
+                .collect(Collectors.toSet());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long live = 0;
+                for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+                    if (heapPools.contains(pool.getKey())) {
+                        live += pool.getValue().getUsed();
+                    }
+                }
+                peakLiveBytes.accumulateAndGet(live, Math::max);
+            }, null, null);
+        }
+    }
+
+    /**
+     * Files of 2,000 to 20,000 lines: a header, then hunks of mixed context, additions and
+     * deletions, with the occasional minified line longer than the per-line cap.
+     */
+    private static void writeDiff(Path diff, long size) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(diff, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (int file = 0; written < size; file++) {
+                String path = "src/main/java/com/example/module" + file % 97 + "/Generated" + file + ".java";
+                StringBuilder section = new StringBuilder()
+                        .append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+                        .append(file % 10 == 0 ? "new file mode 100644\n" : "")
+                        .append("index 3b18e51..a9c0f2d 100644\n")
+                        .append("--- a/").append(path).append('\n')
+                        .append("+++ b/").append(path).append('\n');
+                int lines = 2_000 + (file * 7_919) % 18_000;
+                for (int line = 0; line < lines; line++) {
+                    if (line % 40 == 0) {
+                        section.append("@@ -").append(line).append(",40 +").append(line).append(",40 @@ class Generated")
+                                .append(file).append('\n');
+                    }
+                    char kind = line % 5 == 0 ? '+' : line % 7 == 0 ? '-' : ' ';
+                    section.append(kind).append("        int value").append(line).append(" = compute(")
+                            .append(line).append(", \"module").append(file).append("\");");
+                    if (line % 997 == 0) {
+                        section.append(" // ").append("x".repeat(3_000));
+                    }
+                    section.append('\n');
+                }
+                out.write(section.toString());
+                written += section.length();
+            }
+        }
+    }
+
+    /**
+     * One page of 100 files, each with a patch of 300 lines, as {@code /pulls/{n}/files} returns it.
+     */
+    private static void writeFilesPage(Path filesPage) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(filesPage, StandardCharsets.UTF_8)) {
+            out.write('[');
+            for (int file = 0; file < 100; file++) {
+                StringBuilder patch = new StringBuilder();
+                for (int line = 0; line < 300; line++) {
+                    if (line % 40 == 0) {
+                        patch.append("@@ -").append(line).append(",40 +").append(line).append(",40 @@\\n");
+                    }
+                    patch.append(line % 5 == 0 ? '+' : ' ').append("    int value").append(line)
+                            .append(" = compute(").append(line).append(");\\n");
+                }
+                out.write((file == 0 ? "" : ",") + "{\"sha\":\"a9c0f2d\",\"filename\":\"src/File" + file
+                        + ".java\",\"status\":\"modified\",\"additions\":60,\"deletions\":0,\"changes\":60,"
+                        + "\"patch\":\"" + patch + "\"}");
+            }
+            out.write(']');
+        }
+    }
+
+    /**
+     * A page of three files whose middle one carries a patch of about {@code patchBytes}, larger
+     * than any budget, as a pull request touching a huge generated file would.
+     */
+    private static void writeLargePatchPage(Path page, long patchBytes) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(page, StandardCharsets.UTF_8)) {
+            out.write("[{\"sha\":\"a9c0f2d\",\"filename\":\"src/Before.java\",\"status\":\"modified\","
+                    + "\"additions\":1,\"deletions\":0,\"changes\":1,"
+                    + "\"patch\":\"@@ -1,1 +1,2 @@\\n+    int before;\"},");
+            out.write("{\"sha\":\"a9c0f2d\",\"filename\":\"src/Generated.java\",\"status\":\"added\","
+                    + "\"additions\":0,\"deletions\":0,\"changes\":0,\"patch\":\"@@ -0,0 +1 @@\\n");
+            for (long written = 0, line = 0; written < patchBytes; line++) {
+                String text = "+    static final int VALUE" + line + " = " + line + ";\\n";
+                out.write(text);
+                written += text.length();
+            }
+            out.write("\"},{\"sha\":\"a9c0f2d\",\"filename\":\"src/After.java\",\"status\":\"modified\","
+                    + "\"additions\":1,\"deletions\":0,\"changes\":1,"
+                    + "\"patch\":\"@@ -1,1 +1,2 @@\\n+    int after;\"}]");
+        }
+    }
+
+    /**
+     * Counts leak reports instead of only logging them.
+     */
+    private static final class CountingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+        @Override
+        @SuppressWarnings("deprecation")
+        public <T> ResourceLeakDetector<T> newResourceLeakDetector(Class<T> resource, int samplingInterval,
+                                                                   long maxActive) {
+            return new ResourceLeakDetector<>(resource, samplingInterval) {
+                @Override
+                protected void reportTracedLeak(String resourceType, String records) {
+                    leaks.incrementAndGet();
+                    super.reportTracedLeak(resourceType, records);
+                }
+
+                @Override
+                protected void reportUntracedLeak(String resourceType) {
+                    leaks.incrementAndGet();
+                    super.reportUntracedLeak(resourceType);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.naga.github;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PullRequestSearchIndex} queries over synthetic pull requests (Zipf-like title words,
+ * 2,000 authors, ten years of creation dates) against a linear scan of the list with the same
+ * filters. Setup prints the build time and the approximate size of the search structures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PullRequestSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "fix", "add", "update", "remove", "refactor", "bump", "dependency", "test", "docs", "cache",
+            "timeout", "retry", "auth", "token", "jwt", "sse", "webhook", "index", "search", "logging",
+            "metrics", "gradle", "maven", "docker", "config", "null", "pointer", "race", "condition", "memory",
+            "leak", "performance", "startup", "pagination", "github", "api", "client", "server", "stream", "json"
+    };
+    private static final long NOW = Instant.parse("2026-10-01T00:00:00Z").getEpochSecond();
+
+    @Param({"100000"})
+    public int pullRequests;
+
+    private List<PullRequestSummary> list;
+    private PullRequestSearchIndex index;
+    private PullRequestSearchIndex.Query textQuery;
+    private PullRequestSearchIndex.Query authorLastWeek;
+    private PullRequestSearchIndex.Query authorLastYearMentioning;
+
+    @Setup
+    public void build() {
+        Random random = new Random(42);
+        list = new ArrayList<>(pullRequests);
+        for (int i = 0; i < pullRequests; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0, words = 3 + random.nextInt(6); w < words; w++) {
+                // Skewed towards the first words, as real titles are
+                int word = (int) Math.min(WORDS.length - 1, Math.abs(random.nextGaussian()) * WORDS.length / 3);
+                title.append(w == 0 ? "" : " ").append(WORDS[word]);
+            }
+            String created = Instant.ofEpochSecond(NOW - (long) (pullRequests - i) * 3_153).toString();
+            list.add(new PullRequestSummary(i + 1, title + " #" + i, random.nextInt(10) < 2 ? "open" : "closed",
+                    "user" + random.nextInt(2_000), created, created, "https://github.com/o/r/pull/" + (i + 1)));
+        }
+
+        long start = System.nanoTime();
+        index = PullRequestSearchIndex.build(list);
+        System.out.printf("%nbuilt %d PRs in %d ms, ~%d KB of search structures%n", index.size(),
+                (System.nanoTime() - start) / 1_000_000, index.estimatedBytes() / 1024);
+
+        long weekAgo = NOW - 7 * 86_400;
+        textQuery = new PullRequestSearchIndex.Query("retry timeout", null, "all", null, null, 20);
+        authorLastWeek = new PullRequestSearchIndex.Query(null, "user7", "all", weekAgo, null, 20);
+        authorLastYearMentioning = new PullRequestSearchIndex.Query("cache", "user7", "all",
+                NOW - 365 * 86_400L, null, 20);
+    }
+
+    @Benchmark
+    public PullRequestSearchResults indexText() {
+        return index.search(textQuery);
+    }
+
+    @Benchmark
+    public PullRequestSearchResults indexAuthorLastWeek() {
+        return index.search(authorLastWeek);
+    }
+
+    @Benchmark
+    public PullRequestSearchResults indexAuthorLastYearMentioning() {
+        return index.search(authorLastYearMentioning);
+    }
+
+    @Benchmark
+    public List<PullRequestSummary> scanText() {
+        List<PullRequestSummary> hits = new ArrayList<>();
+        for (PullRequestSummary pullRequest : list) {
+            String title = pullRequest.title().toLowerCase(Locale.ROOT);
+            if (title.contains("retry") || title.contains("timeout")) {
+                hits.add(pullRequest);
+            }
+        }
+        hits.sort(Comparator.comparing(PullRequestSummary::createdAt).reversed());
+        return hits.subList(0, Math.min(20, hits.size()));
+    }
+
+    @Benchmark
+    public List<PullRequestSummary> scanAuthorLastYearMentioning() {
+        String since = Instant.ofEpochSecond(NOW - 365 * 86_400L).toString();
+        List<PullRequestSummary> hits = new ArrayList<>();
+        for (PullRequestSummary pullRequest : list) {
+            if (pullRequest.author().equals("user7") && pullRequest.createdAt().compareTo(since) >= 0
+                    && pullRequest.title().toLowerCase(Locale.ROOT).contains("cache")) {
+                hits.add(pullRequest);
+            }
+        }
+        hits.sort(Comparator.comparing(PullRequestSummary::createdAt).reversed());
+        return hits.subList(0, Math.min(20, hits.size()));
+    }
+}
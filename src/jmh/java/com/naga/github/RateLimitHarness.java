@@ -0,0 +1,78 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@link GitHubRequestScheduler} against {@link GitHubStubServer} with a small
+ * rate limit and a burst of interactive and background calls. Fails if any call got
+ * past the scheduler and hit GitHub's limit.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.github.RateLimitHarness}
+ */
+public class RateLimitHarness {
+
+    public static void main(String[] args) throws Exception {
+        int limit = 60;
+        int interactive = 150;
+        int background = 50;
+
+        try (GitHubStubServer stub = new GitHubStubServer()) {
+            stub.serve("/repos/", "application/json", "[]".getBytes()).rateLimit(limit, 30);
+
+            GitHubRequestScheduler scheduler = new GitHubRequestScheduler(
+                    new SimpleMeterRegistry(), 10, 20, 5, 200, 2000);
+            WebClient webClient = WebClient.builder()
+                    .baseUrl(stub.baseUrl() + "/repos/")
+                    .filter(scheduler.filter())
+                    .build();
+
+            // Learn the budget from a first response.
+            call(webClient, GitHubRequestScheduler.Priority.INTERACTIVE).block();
+
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            AtomicInteger backgroundOk = new AtomicInteger();
+
+            long start = System.nanoTime();
+            Flux.merge(
+                    Flux.range(0, background).map(i -> call(webClient, GitHubRequestScheduler.Priority.BACKGROUND)
+                            .doOnSuccess(v -> backgroundOk.incrementAndGet())),
+                    Flux.range(0, interactive).map(i -> call(webClient, GitHubRequestScheduler.Priority.INTERACTIVE)))
+                    .flatMap(call -> call
+                            .doOnSuccess(v -> ok.incrementAndGet())
+                            .onErrorResume(GitHubRateLimitException.class, e -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            })
+                            .onErrorResume(e -> {
+                                failed.incrementAndGet();
+                                return Mono.empty();
+                            }), 256)
+                    .blockLast();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("limit=%d calls=%d ok=%d (background=%d) rejectedLocally=%d failed=%d "
+                            + "upstream403=%d upstreamRequests=%d elapsed=%dms%n",
+                    limit, interactive + background, ok.get(), backgroundOk.get(), rejected.get(), failed.get(),
+                    stub.limitedResponses(), stub.requests(), elapsedMillis);
+            if (stub.limitedResponses() > 0 || failed.get() > 0) {
+                throw new IllegalStateException("Calls reached GitHub after the budget was spent");
+            }
+        }
+    }
+
+    private static Mono<Void> call(WebClient webClient, GitHubRequestScheduler.Priority priority) {
+        return webClient.get()
+                .uri("/nagachary/java-must-read/pulls")
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, priority)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+}
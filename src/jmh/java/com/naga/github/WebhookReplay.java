@@ -0,0 +1,109 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded webhook deliveries, in file name order, from a directory of bodies named
+ * {@code <X-GitHub-Event>.<anything>.json} (defaults to the fixtures in
+ * {@code src/jmh/resources/github/webhooks}).
+ * <p>
+ * With {@code -Dwebhook.baseUrl} set, each body is signed with {@code GITHUB_WEBHOOK_SECRET}
+ * and POSTed to {@code /github/webhook} of a running server, e.g.
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.github.WebhookReplay
+ * -Dwebhook.baseUrl=http://localhost:8088}. Without it the deliveries go straight through
+ * {@link PullRequestWebhookHandler} in-process, {@code -Dwebhook.rounds} times, and the
+ * resulting index and apply rate are printed.
+ */
+public class WebhookReplay {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(System.getProperty("webhook.dir", "src/jmh/resources/github/webhooks"));
+        String baseUrl = System.getProperty("webhook.baseUrl");
+        String secret = System.getenv().getOrDefault("GITHUB_WEBHOOK_SECRET", "replay-secret");
+
+        List<Path> deliveries;
+        try (Stream<Path> files = Files.list(directory)) {
+            deliveries = files.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList();
+        }
+        if (baseUrl != null) {
+            replayOverHttp(baseUrl, secret, deliveries);
+        } else {
+            replayInProcess(secret, deliveries, Integer.getInteger("webhook.rounds", 1));
+        }
+    }
+
+    private static void replayOverHttp(String baseUrl, String secret, List<Path> deliveries) throws Exception {
+        HttpClient http = HttpClient.create().baseUrl(baseUrl);
+        for (Path delivery : deliveries) {
+            byte[] body = Files.readAllBytes(delivery);
+            String signature = "sha256=" + HexFormat.of()
+                    .formatHex(PullRequestWebhookHandler.sign(secret.getBytes(StandardCharsets.UTF_8), body));
+            String response = http.headers(headers -> headers
+                            .add("Content-Type", "application/json")
+                            .add("X-GitHub-Event", event(delivery))
+                            .add("X-GitHub-Delivery", UUID.randomUUID().toString())
+                            .add("X-Hub-Signature-256", signature))
+                    .post()
+                    .uri("/github/webhook")
+                    .send(ByteBufFlux.fromInbound(Mono.just(body)))
+                    .responseSingle((status, content) -> content.asString()
+                            .defaultIfEmpty("")
+                            .map(text -> status.status().code() + " " + text))
+                    .block(Duration.ofSeconds(10));
+            System.out.printf("%-40s %s%n", delivery.getFileName(), response);
+        }
+    }
+
+    private static void replayInProcess(String secret, List<Path> deliveries, int rounds) throws Exception {
+        PullRequestIndex index = new PullRequestIndex(new SimpleMeterRegistry());
+        PullRequestWebhookHandler handler = new PullRequestWebhookHandler(index,
+                new PullRequestSnapshotStore(false, "unused"), new ObjectMapper(), new SimpleMeterRegistry(),
+                secret, "nagachary", "java-must-read");
+
+        Map<String, byte[]> bodies = new TreeMap<>();
+        for (Path delivery : deliveries) {
+            bodies.put(delivery.getFileName().toString(), Files.readAllBytes(delivery));
+        }
+
+        Map<PullRequestWebhookHandler.Outcome, Integer> outcomes = new TreeMap<>();
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (Map.Entry<String, byte[]> delivery : bodies.entrySet()) {
+                PullRequestWebhookHandler.Outcome outcome = handler.handle(event(delivery.getKey()), delivery.getValue());
+                outcomes.merge(outcome, 1, Integer::sum);
+                if (round == 0) {
+                    System.out.printf("%-40s %s%n", delivery.getKey(), outcome);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%ndeliveries=%d outcomes=%s rate=%.0f/s%n",
+                rounds * bodies.size(), outcomes, rounds * bodies.size() / seconds);
+        System.out.println("open:   " + index.list("open"));
+        System.out.println("closed: " + index.list("closed"));
+    }
+
+    private static String event(Path delivery) {
+        return event(delivery.getFileName().toString());
+    }
+
+    private static String event(String fileName) {
+        return fileName.substring(0, fileName.indexOf('.'));
+    }
+}
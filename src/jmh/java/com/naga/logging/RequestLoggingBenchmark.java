@@ -0,0 +1,121 @@
+package com.naga.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.naga.BenchmarkFixtures;
+import com.naga.controller.McpSseController;
+import com.naga.sse.SseSessionHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /mcp/tools/call} throughput with request logging at INFO, before and after the prod
+ * logging profile: every request logged through a synchronous file appender (the previous
+ * default) against 1% sampling through a non-blocking {@link AsyncAppender}. Runs on four
+ * threads so appender contention shows; the number of lines written is printed on teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RequestLoggingBenchmark {
+
+    @Param({"sync-every-request", "async-sampled"})
+    public String logging;
+
+    private Path logFile;
+    private Appender<ILoggingEvent> appender;
+    private Logger applicationLogger;
+    private SseSessionHub sseSessionHub;
+    private McpSseController controller;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setUp() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logFile = Files.createTempFile("request-logging", ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        boolean async = logging.equals("async-sampled");
+        if (async) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(file);
+            asyncAppender.start();
+            appender = asyncAppender;
+        } else {
+            appender = file;
+        }
+
+        applicationLogger = context.getLogger("com.naga");
+        applicationLogger.setLevel(Level.INFO);
+        applicationLogger.setAdditive(false);
+        applicationLogger.addAppender(appender);
+
+        sseSessionHub = new SseSessionHub(new SimpleMeterRegistry(), 30, 32, 0);
+        controller = new McpSseController(
+                BenchmarkFixtures.toolRegistry(
+                        BenchmarkFixtures.gitHubToolsService(BenchmarkFixtures.recordedGitHubWebClient())),
+                sseSessionHub,
+                new RequestLogSampler(async ? 0.01 : 1.0));
+        request = Map.of("name", "getAllPullRequests", "arguments", Map.of("state", "open"));
+        callTool();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        applicationLogger.detachAppender(appender);
+        applicationLogger.setLevel(null);
+        applicationLogger.setAdditive(true);
+        appender.stop();
+        sseSessionHub.destroy();
+        try (var lines = Files.lines(logFile)) {
+            System.out.printf("%n%s: %d log lines written%n", logging, lines.count());
+        }
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public Map<String, Object> callTool() {
+        return controller.callTool(request).block();
+    }
+}
@@ -0,0 +1,52 @@
+package com.naga.security;
+
+import com.naga.BenchmarkFixtures;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and validation, which every authenticated request pays for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilityBenchmark {
+
+    /** 0 disables the verified-token cache, so validate always runs the parser. */
+    @Param({"0", "10000"})
+    public long verifiedTokenCacheSize;
+
+    private JwtUtility jwtUtility;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtility = BenchmarkFixtures.jwtUtility(verifiedTokenCacheSize);
+        token = jwtUtility.generateToken(BenchmarkFixtures.SUBJECT);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtility.generateToken(BenchmarkFixtures.SUBJECT);
+    }
+
+    @Benchmark
+    public Claims validate() {
+        return jwtUtility.validate(token);
+    }
+}
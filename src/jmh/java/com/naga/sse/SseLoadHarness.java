@@ -0,0 +1,114 @@
+package com.naga.sse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds many concurrent {@code /mcp/sse} connections against a running server and reports
+ * the server's heap growth per connection, read from {@code /actuator/metrics}.
+ * <p>
+ * Start the server with enough connections allowed, e.g.
+ * {@code --server.tomcat.max-connections=12000 --mcp.sse.heartbeat-interval-seconds=10}, raise
+ * {@code ulimit -n} on both sides, then run
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.naga.sse.SseLoadHarness
+ * -Dsse.connections=10000} with {@code MCP_SERVER_SHARED_API_KEY} set.
+ * Heap figures include garbage; {@code jvm.gc.live.data.size} (after the last major GC) is
+ * printed as well and is the steadier number when a collection happened during the run.
+ */
+public class SseLoadHarness {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("sse.baseUrl", "http://localhost:8088");
+        int connections = Integer.getInteger("sse.connections", 10_000);
+        int rampPerSecond = Integer.getInteger("sse.rampPerSecond", 2_000);
+        long settleSeconds = Long.getLong("sse.settleSeconds", 15);
+        String apiKey = System.getenv("MCP_SERVER_SHARED_API_KEY");
+
+        HttpClient http = HttpClient.create(ConnectionProvider.newConnection()).baseUrl(baseUrl);
+        String token = objectMapper.readTree(http.headers(headers -> headers.add("X-API-KEY", apiKey))
+                        .post()
+                        .uri("/mcp/auth/token")
+                        .responseContent()
+                        .aggregate()
+                        .asString()
+                        .block(Duration.ofSeconds(10)))
+                .get("accessToken").asText();
+        HttpClient sse = http.headers(headers -> headers.add("Authorization", "Bearer " + token));
+
+        double sessionsBefore = metric(http, "mcp.sse.sessions", null);
+        double heapBefore = metric(http, "jvm.memory.used", "area:heap");
+        double liveBefore = metric(http, "jvm.gc.live.data.size", null);
+
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger heartbeats = new AtomicInteger();
+        List<Disposable> streams = new ArrayList<>(connections);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            streams.add(sse.get()
+                    .uri("/mcp/sse")
+                    .response((response, body) -> {
+                        if (response.status().code() == 200) {
+                            connected.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                        return body.asString();
+                    })
+                    .subscribe(chunk -> {
+                        if (chunk.contains("event:heartbeat")) {
+                            heartbeats.incrementAndGet();
+                        }
+                    }, error -> failed.incrementAndGet()));
+            if ((i + 1) % rampPerSecond == 0) {
+                Thread.sleep(1000);
+            }
+        }
+        while (connected.get() + failed.get() < connections && System.nanoTime() - start < 120_000_000_000L) {
+            Thread.sleep(100);
+        }
+        long connectMillis = (System.nanoTime() - start) / 1_000_000;
+        Thread.sleep(Duration.ofSeconds(settleSeconds).toMillis());
+
+        double sessions = metric(http, "mcp.sse.sessions", null) - sessionsBefore;
+        double heapAfter = metric(http, "jvm.memory.used", "area:heap");
+        double liveAfter = metric(http, "jvm.gc.live.data.size", null);
+
+        System.out.printf("connections=%d connected=%d failed=%d serverSessions=%.0f heartbeatsReceived=%d "
+                        + "connectTime=%dms%n",
+                connections, connected.get(), failed.get(), sessions, heartbeats.get(), connectMillis);
+        if (sessions > 0) {
+            System.out.printf("heapUsed: %.1f MB -> %.1f MB, %.0f bytes/connection%n",
+                    heapBefore / 1e6, heapAfter / 1e6, (heapAfter - heapBefore) / sessions);
+            System.out.printf("liveDataAfterGc: %.1f MB -> %.1f MB, %.0f bytes/connection%n",
+                    liveBefore / 1e6, liveAfter / 1e6, (liveAfter - liveBefore) / sessions);
+        }
+
+        streams.forEach(Disposable::dispose);
+    }
+
+    private static double metric(HttpClient http, String name, String tag) throws Exception {
+        String uri = "/actuator/metrics/" + name + (tag != null ? "?tag=" + tag : "");
+        String json = http.get().uri(uri).responseContent().aggregate().asString().block(Duration.ofSeconds(10));
+        if (json == null) {
+            return Double.NaN;
+        }
+        for (JsonNode measurement : objectMapper.readTree(json).path("measurements")) {
+            if ("VALUE".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+}
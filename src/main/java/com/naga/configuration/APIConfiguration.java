@@ -1,17 +1,28 @@
 package com.naga.configuration;
 
 import com.naga.filter.JwtSlidingExpirationFilter;
+import com.naga.github.GitHubApiMetrics;
+import com.naga.github.GitHubRequestScheduler;
+import io.netty.channel.ChannelOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class APIConfiguration {
@@ -26,18 +37,94 @@ public class APIConfiguration {
     @Value("${github.api.bearer.token}")
     private String bearerToken;
 
+    @Value("${github.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${github.http.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${github.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMillis;
+
+    @Value("${github.http.max-idle-time-seconds:30}")
+    private long maxIdleTimeSeconds;
+
+    @Value("${github.http.max-life-time-seconds:300}")
+    private long maxLifeTimeSeconds;
+
+    @Value("${github.http.evict-in-background-seconds:30}")
+    private long evictInBackgroundSeconds;
+
+    @Value("${github.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMillis;
+
+    @Value("${github.http.response-timeout-ms:20000}")
+    private long responseTimeoutMillis;
+
+    @Value("${github.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    /**
+     * Root of the GitHub REST API, without a trailing slash: the parent of
+     * {@code github.api.basePath}, which points at {@code /repos/}. Endpoints outside
+     * {@code /repos/} (user and organization listings, GraphQL) are resolved against it.
+     */
+    @Bean("GITHUB_API_ROOT")
+    public URI gitHubApiRoot() {
+        URI basePath = URI.create(gitHubApiBasePath.endsWith("/") ? gitHubApiBasePath : gitHubApiBasePath + "/");
+        String root = basePath.resolve("..").toString();
+        return URI.create(root.endsWith("/") ? root.substring(0, root.length() - 1) : root);
+    }
+
+    /**
+     * Dedicated connection pool for GitHub. Pool gauges (active, idle, pending connections)
+     * and the pending-acquire timer are published as reactor.netty.connection.provider.*
+     * metrics through the global Micrometer registry, which Actuator exposes.
+     */
+    @Bean(name = "GITHUB_CONNECTION_PROVIDER", destroyMethod = "dispose")
+    public ConnectionProvider gitHubConnectionProvider() {
+        return ConnectionProvider.builder("github")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeTimeSeconds))
+                .evictInBackground(Duration.ofSeconds(evictInBackgroundSeconds))
+                .metrics(true)
+                .build();
+    }
+
     @Bean("GITHUB_WEBCLIENT")
-    public WebClient webClient() {
-        logger.info("Initializing GitHub WebClient");
+    public WebClient webClient(GitHubRequestScheduler gitHubRequestScheduler,
+                               GitHubApiMetrics gitHubApiMetrics,
+                               @Qualifier("GITHUB_CONNECTION_PROVIDER") ConnectionProvider connectionProvider) {
+        logger.info("Initializing GitHub WebClient: maxConnections={}, http2={}", maxConnections, http2Enabled);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(true)
+                // Per request, from the request being sent to each read of the response; a
+                // connection-level read handler would also fire on idle pooled connections
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
+        if (http2Enabled && gitHubApiBasePath.startsWith("https")) {
+            // HTTP/2 is negotiated over TLS via ALPN, falling back to HTTP/1.1
+            httpClient = httpClient.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
 
         return WebClient.builder()
                 .baseUrl(gitHubApiBasePath)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeaders(header -> {
                     header.add(HttpHeaders.CONTENT_TYPE, "application/vnd.github+json");
                     header.add(HttpHeaders.ACCEPT, "application/vnd.github+json");
                     header.add("X-GitHub-Api-Version", apiVersion);
                     header.add("Authorization", "Bearer " + bearerToken);
                 })
+                .filter(gitHubRequestScheduler.filter())
+                // Inside the scheduler, so queueing for rate-limit budget is not counted as GitHub latency
+                .filter(gitHubApiMetrics.filter())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.naga.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ToolExecutionConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(ToolExecutionConfiguration.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Scheduler that tool methods returning plain (non-reactive) values run on, so a
+     * blocking tool never holds a request or event-loop thread. Uses one virtual thread
+     * per call when virtual threads are enabled, a bounded elastic pool otherwise.
+     */
+    @Bean(name = "TOOL_SCHEDULER", destroyMethod = "dispose")
+    public Scheduler toolScheduler() {
+        if (virtualThreads) {
+            logger.info("Blocking MCP tools run on virtual threads");
+            return Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-tool-", 0).factory()),
+                    "mcp-tool");
+        }
+        logger.info("Blocking MCP tools run on a bounded elastic pool");
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "mcp-tool");
+    }
+}
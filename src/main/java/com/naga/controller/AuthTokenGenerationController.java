@@ -35,7 +35,7 @@ public class AuthTokenGenerationController {
     @PostMapping("/token")
     public ResponseEntity<Map<String, String>> issueToken(
             @RequestHeader(REQUEST_HEADER_X_API_KEY) String apiKey) {
-        logger.info("issueToken method : ");
+        logger.debug("Issuing token");
 
         if (!expectedApiKey.equals(apiKey)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -1,17 +1,20 @@
 package com.naga.controller;
 
 import com.naga.github.GitHubToolsService;
+import com.naga.github.PullRequestSummary;
+import com.naga.logging.RequestLogSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/github/prs")
@@ -19,20 +22,46 @@ public class GitHubController {
     private static final Logger logger = LoggerFactory.getLogger(GitHubController.class);
 
     private final GitHubToolsService gitHubService;
+    private final RequestLogSampler requestLogSampler;
 
     @Autowired
-    public GitHubController(GitHubToolsService gitHubService) {
+    public GitHubController(GitHubToolsService gitHubService, RequestLogSampler requestLogSampler) {
         this.gitHubService = gitHubService;
+        this.requestLogSampler = requestLogSampler;
     }
 
     @GetMapping
-    public Mono<List<Map<String, Object>>> getAllPRs(
+    public Mono<List<PullRequestSummary>> getAllPRs(
             @RequestParam(name = "state", required = false, defaultValue = "open") String state) {
 
-        logger.info("REST API: getAllPRs called with state={}", state);
+        boolean logged = logger.isInfoEnabled() && requestLogSampler.sample();
+        if (logged) {
+            logger.info("REST API: getAllPRs called with state={}", state);
+        }
 
         return gitHubService.getAllPullRequests(state)
-                .doOnSuccess(prs -> logger.info("REST API: Retrieved {} pull requests", prs.size()))
+                .collectList()
+                .doOnSuccess(prs -> {
+                    if (logged) {
+                        logger.info("REST API: Retrieved {} pull requests", prs.size());
+                    }
+                })
+                .doOnError(error -> logger.error("REST API: Error - {}", error.getMessage()));
+    }
+
+    /**
+     * The same listing, streamed as NDJSON or SSE: each pull request is written as soon as it
+     * is decoded instead of after the last page.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<PullRequestSummary> streamPRs(
+            @RequestParam(name = "state", required = false, defaultValue = "open") String state) {
+
+        boolean logged = logger.isInfoEnabled() && requestLogSampler.sample();
+        if (logged) {
+            logger.info("REST API: streamPRs called with state={}", state);
+        }
+        return gitHubService.getAllPullRequests(state)
                 .doOnError(error -> logger.error("REST API: Error - {}", error.getMessage()));
     }
 }
\ No newline at end of file
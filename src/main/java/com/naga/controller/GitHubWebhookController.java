@@ -0,0 +1,55 @@
+package com.naga.controller;
+
+import com.naga.github.PullRequestWebhookHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives GitHub webhook deliveries. Authenticated by the delivery's HMAC signature
+ * rather than a JWT, so the path is open in {@code SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/github/webhook")
+public class GitHubWebhookController {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubWebhookController.class);
+
+    private final PullRequestWebhookHandler webhookHandler;
+
+    public GitHubWebhookController(PullRequestWebhookHandler webhookHandler) {
+        this.webhookHandler = webhookHandler;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, String>> receive(
+            @RequestHeader(name = "X-GitHub-Event", required = false) String event,
+            @RequestHeader(name = "X-GitHub-Delivery", required = false) String delivery,
+            @RequestHeader(name = "X-Hub-Signature-256", required = false) String signature,
+            @RequestBody byte[] body) {
+
+        if (!webhookHandler.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!webhookHandler.verify(signature, body)) {
+            logger.warn("Rejected webhook delivery {} with an invalid signature", delivery);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            PullRequestWebhookHandler.Outcome outcome = webhookHandler.handle(event, body);
+            return ResponseEntity.ok(Map.of("outcome", outcome.name().toLowerCase()));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not apply webhook delivery {} ({}): {}", delivery, event, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.naga.controller;
 
-import com.naga.github.GitHubToolsService;
+import com.naga.logging.RequestLogSampler;
+import com.naga.sse.SseSessionHub;
+import com.naga.tools.RegisteredTool;
+import com.naga.tools.ToolRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.security.Principal;
 import java.util.*;
 
 /**
@@ -20,56 +26,43 @@ import java.util.*;
 @RequestMapping("/mcp")
 public class McpSseController {
     private static final Logger logger = LoggerFactory.getLogger(McpSseController.class);
-    private final GitHubToolsService gitHubToolsService;
+    private final ToolRegistry toolRegistry;
+    private final SseSessionHub sseSessionHub;
+    private final RequestLogSampler requestLogSampler;
+
+    @Value("${mcp.tools.batch.parallelism:8}")
+    private int batchParallelism = 8;
+
+    @Value("${mcp.tools.batch.max-calls:100}")
+    private int batchMaxCalls = 100;
 
     @Autowired
-    public McpSseController(GitHubToolsService gitHubToolsService) {
-        this.gitHubToolsService = gitHubToolsService;
+    public McpSseController(ToolRegistry toolRegistry, SseSessionHub sseSessionHub,
+                            RequestLogSampler requestLogSampler) {
+        this.toolRegistry = toolRegistry;
+        this.sseSessionHub = sseSessionHub;
+        this.requestLogSampler = requestLogSampler;
         logger.info("MCP SSE Controller initialized");
     }
 
     /**
-     * SSE endpoint for MCP protocol
+     * SSE endpoint for MCP protocol. Sessions are registered with the {@link SseSessionHub},
+     * which sends the shared heartbeat and any server-initiated events.
      */
     @GetMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<String> sseEndpoint() {
-        logger.info("SSE client connected to /mcp/sse");
-
-        return Flux.interval(Duration.ofSeconds(30))
-                .map(sequence -> "event: heartbeat\ndata: {\"timestamp\": \"" +
-                        new Date() + "\"}\n\n")
-                .doOnCancel(() -> logger.info("SSE client disconnected"));
+    public Flux<ServerSentEvent<String>> sseEndpoint(Principal principal) {
+        return sseSessionHub.connect(principal != null ? principal.getName() : null);
     }
 
     /**
      * List all available MCP tools
      */
     @PostMapping("/tools/list")
-    public Map<String, Object> listTools() {
-        logger.info("Listing MCP tools");
-
-        List<Map<String, Object>> tools = new ArrayList<>();
-
-        Map<String, Object> tool1 = new HashMap<>();
-        tool1.put("name", "getAllPullRequests");
-        tool1.put("description", "Retrieves all pull requests from the GitHub repository. " +
-                "Returns PR number, title, state, author, and creation date for each pull request. " +
-                "State parameter can be: 'open', 'closed', or 'all'. Defaults to 'open' if not specified.");
-        tool1.put("parameters", Map.of(
-                "state", Map.of(
-                        "type", "string",
-                        "description", "Filter pull requests by state: 'open', 'closed', or 'all'",
-                        "required", false,
-                        "default", "open"
-                )
-        ));
-        tools.add(tool1);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("tools", tools);
-        response.put("count", tools.size());
-
-        return response;
+    public ResponseEntity<byte[]> listTools() {
+        logger.debug("Listing MCP tools");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(toolRegistry.toolListJson());
     }
 
     /**
@@ -77,62 +70,141 @@ public class McpSseController {
      */
     @PostMapping("/tools/call")
     public Mono<Map<String, Object>> callTool(@RequestBody Map<String, Object> request) {
-        long startTime = System.currentTimeMillis();
         String toolName = (String) request.get("name");
         @SuppressWarnings("unchecked")
-        Map<String, Object> arguments = (Map<String, Object>) request.getOrDefault("arguments", new HashMap<>());
-        logger.info("REQUEST: tool={}, args={}", toolName, arguments);
-        try {
-            if ("getAllPullRequests".equals(toolName)) {
-                String state = (String) arguments.getOrDefault("state", "open");
-                return gitHubToolsService.getAllPullRequests(state)
-                        .map(result -> {
-                            Map<String, Object> response = new HashMap<>();
-                            response.put("status", "success");
-                            response.put("result", result);
-                            logger.info("Tool executed successfully, returned {} items", result.size());
-                            return response;
-                        })
-                        .doOnError(e -> {
-                            long elapsed = System.currentTimeMillis() - startTime;
-                            logger.error("✗ ERROR: tool={}, duration={}ms, error={}",
-                                    toolName, elapsed, e.getMessage());
-                        })
-                        .onErrorResume(e -> {
-                            Map<String, Object> errorResponse = new HashMap<>();
-                            logger.error("Error calling tool {}: {}", toolName, e.getMessage(), e);
-                            errorResponse.put("status", "error");
-                            errorResponse.put("error", e.getMessage());
-                            return Mono.just(errorResponse);
-                        });
-            } else {
-                throw new IllegalArgumentException("Unknown tool: " + toolName);
-            }
-
-        } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            logger.error("Error calling tool {}: {}", toolName, e.getMessage(), e);
-            errorResponse.put("status", "error");
-            errorResponse.put("error", e.getMessage());
-            return Mono.just(errorResponse);
+        Map<String, Object> arguments = (Map<String, Object>) request.getOrDefault("arguments", Map.of());
+        boolean logged = logger.isInfoEnabled() && requestLogSampler.sample();
+        if (logged) {
+            logger.info("REQUEST: tool={}, args={}", toolName, arguments);
         }
+        return execute(toolName, arguments, logged);
+    }
+
+    /**
+     * Execute a tool and stream its result as NDJSON or SSE: one {@code {"item": ...}} entry per
+     * element as soon as the tool produces it, then {@code {"status":"success","count":n}}, or
+     * {@code {"status":"error",...}} if the call fails part way.
+     */
+    @PostMapping(value = "/tools/call",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Map<String, Object>> streamTool(@RequestBody Map<String, Object> request) {
+        String toolName = (String) request.get("name");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> arguments = (Map<String, Object>) request.getOrDefault("arguments", Map.of());
+        boolean logged = logger.isInfoEnabled() && requestLogSampler.sample();
+        if (logged) {
+            logger.info("STREAM REQUEST: tool={}, args={}", toolName, arguments);
+        }
+        RegisteredTool tool = toolRegistry.find(toolName);
+        if (tool == null) {
+            return Flux.just(errorResponse(toolName, new IllegalArgumentException("Unknown tool: " + toolName)));
+        }
+
+        long[] count = new long[1];
+        return tool.stream(arguments)
+                .map(item -> {
+                    count[0]++;
+                    return Collections.<String, Object>singletonMap("item", item);
+                })
+                .concatWith(Mono.fromSupplier(() -> {
+                    if (logged) {
+                        logger.info("Tool streamed successfully, {} items", count[0]);
+                    }
+                    return Map.of("status", "success", "count", count[0]);
+                }))
+                .doOnError(e -> logger.error("✗ ERROR: tool={}, error={}", toolName, e.getMessage()))
+                .onErrorResume(e -> Mono.just(errorResponse(toolName, e)));
+    }
+
+    /**
+     * Execute several tools concurrently (at most mcp.tools.batch.parallelism at a time).
+     * Each result is streamed as soon as its call completes, tagged with the caller's id;
+     * a failed call produces an error entry and does not affect the others.
+     */
+    @PostMapping(value = "/tools/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Map<String, Object>> callTools(@RequestBody List<Map<String, Object>> calls) {
+        boolean logged = logger.isInfoEnabled() && requestLogSampler.sample();
+        if (logged) {
+            logger.info("BATCH REQUEST: calls={}", calls.size());
+        }
+        if (calls.size() > batchMaxCalls) {
+            return Flux.just(Map.of("status", "error",
+                    "error", "Batch of " + calls.size() + " calls exceeds the limit of " + batchMaxCalls));
+        }
+
+        // By index: fromIterable would reject a null entry and end the whole batch
+        return Flux.range(0, calls.size())
+                .flatMap(index -> {
+                    Map<String, Object> call = calls.get(index);
+                    Object id = call == null ? null : call.get("id");
+                    Object name = call == null ? null : call.get("name");
+                    // A malformed entry fails its own call, not the batch
+                    return Mono.defer(() -> {
+                                if (call == null || !(name instanceof String toolName)) {
+                                    return Mono.error(new IllegalArgumentException("missing tool name"));
+                                }
+                                Object arguments = call.get("arguments");
+                                if (arguments != null && !(arguments instanceof Map)) {
+                                    return Mono.error(new IllegalArgumentException("arguments must be an object"));
+                                }
+                                @SuppressWarnings("unchecked")
+                                Map<String, Object> argumentMap = arguments == null
+                                        ? Map.of()
+                                        : (Map<String, Object>) arguments;
+                                return execute(toolName, argumentMap, logged);
+                            })
+                            .onErrorResume(e -> Mono.just(errorResponse(String.valueOf(name),
+                                    new IllegalArgumentException("Malformed tool call: " + e.getMessage(), e))))
+                            .map(response -> {
+                                Map<String, Object> tagged = new HashMap<>(response);
+                                tagged.put("id", id);
+                                tagged.put("name", name);
+                                return tagged;
+                            });
+                }, batchParallelism);
+    }
+
+    private Mono<Map<String, Object>> execute(String toolName, Map<String, Object> arguments, boolean logged) {
+        RegisteredTool tool = toolRegistry.find(toolName);
+        if (tool == null) {
+            return Mono.just(errorResponse(toolName, new IllegalArgumentException("Unknown tool: " + toolName)));
+        }
+
+        return tool.invoke(arguments)
+                .map(result -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("status", "success");
+                    response.put("result", result);
+                    if (logged) {
+                        if (result instanceof Collection<?> items) {
+                            logger.info("Tool executed successfully, returned {} items", items.size());
+                        } else {
+                            logger.info("Tool executed successfully");
+                        }
+                    }
+                    return response;
+                })
+                .defaultIfEmpty(Map.of("status", "success"))
+                .doOnError(e -> logger.error("✗ ERROR: tool={}, error={}", toolName, e.getMessage()))
+                .onErrorResume(e -> Mono.just(errorResponse(toolName, e)));
     }
 
     /**
      * Get MCP server info
      */
     @GetMapping("/info")
-    public Map<String, Object> getServerInfo() {
-        Map<String, Object> info = new HashMap<>();
-
-        info.put("name", "spring_boot_ai_mcp_server");
-        info.put("version", "1.0.0");
-        info.put("protocol", "SSE");
-        info.put("endpoint", "/mcp/sse");
-        info.put("toolCount", 1);
-        info.put("tools", List.of("getAllPullRequests"));
-        info.put("status", "running");
-
-        return info;
+    public ResponseEntity<byte[]> getServerInfo() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(toolRegistry.serverInfoJson());
+    }
+
+    private Map<String, Object> errorResponse(String toolName, Throwable e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        logger.error("Error calling tool {}: {}", toolName, e.getMessage(), e);
+        errorResponse.put("status", "error");
+        errorResponse.put("error", e.getMessage());
+        return errorResponse;
     }
-}
\ No newline at end of file
+}
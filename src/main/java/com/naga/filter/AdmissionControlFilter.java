@@ -0,0 +1,139 @@
+package com.naga.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sheds calls of subjects over their budget with 429 and {@code Retry-After}, right after
+ * {@link JwtSlidingExpirationFilter} has authenticated them and before any controller or
+ * upstream work starts. Budgets are kept by {@link SubjectAdmissionControl}.
+ * <p>
+ * Requests under {@code mcp.admission.paths} are admitted; those under
+ * {@code mcp.admission.stream-paths} (long-lived SSE streams) take a token but no in-flight slot.
+ * A slot taken by an async request (reactive and streaming responses) is released when the
+ * async request completes, not when the filter chain returns.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final SubjectAdmissionControl admissionControl;
+    private final boolean enabled;
+    private final List<String> paths;
+    private final List<String> streamPaths;
+
+    public AdmissionControlFilter(SubjectAdmissionControl admissionControl,
+                                  @Value("${mcp.admission.enabled:true}") boolean enabled,
+                                  @Value("${mcp.admission.paths:/mcp/**,/api/github/**}") String paths,
+                                  @Value("${mcp.admission.stream-paths:/mcp/sse}") String streamPaths) {
+        this.admissionControl = admissionControl;
+        this.enabled = enabled;
+        this.paths = split(paths);
+        this.streamPaths = split(streamPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !matches(paths, request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            // Rejected by the authorization filter further down the chain
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean stream = matches(streamPaths, request.getRequestURI());
+        SubjectAdmissionControl.Admission admission = admissionControl.admit(authentication.getName(), !stream);
+        if (admission.outcome() != SubjectAdmissionControl.Outcome.ADMITTED) {
+            logger.debug("Shedding {} {} of {}: {}", request.getMethod(), request.getRequestURI(),
+                    authentication.getName(), admission.outcome());
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(("{\"status\":\"error\",\"error\":\"" + admission.outcome()
+                    + "\",\"retryAfterSeconds\":" + admission.retryAfterSeconds() + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(admission));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                admission.release();
+            }
+        }
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> split(String patterns) {
+        return Arrays.stream(patterns.split(","))
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+    }
+
+    private record ReleasingListener(SubjectAdmissionControl.Admission admission) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle, as the container drops listeners on restart
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
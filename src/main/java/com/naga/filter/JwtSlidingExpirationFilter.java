@@ -2,6 +2,8 @@ package com.naga.filter;
 
 import com.naga.security.JwtUtility;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +19,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtSlidingExpirationFilter extends OncePerRequestFilter {
@@ -24,23 +27,31 @@ public class JwtSlidingExpirationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtSlidingExpirationFilter.class);
     private final String AUTHORIZATION = "Authorization";
     private final String BEARER = "Bearer ";
+    private final String REFRESH_TOKEN = "X-Refresh-Token";
     private JwtUtility jwtUtility;
 
-    public JwtSlidingExpirationFilter(JwtUtility jwtUtility) {
+    // Time spent authenticating a request, excluding the rest of the filter chain
+    private final Timer authenticated;
+    private final Timer rejected;
+    private final Timer anonymous;
+
+    public JwtSlidingExpirationFilter(JwtUtility jwtUtility, MeterRegistry meterRegistry) {
         this.jwtUtility = jwtUtility;
+        this.authenticated = timer(meterRegistry, "authenticated");
+        this.rejected = timer(meterRegistry, "rejected");
+        this.anonymous = timer(meterRegistry, "anonymous");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        logger.info("doFilterInternal : ");
-
         if (DispatcherType.ASYNC.equals(request.getDispatcherType())) {
             filterChain.doFilter(request, response);
             return;
         }
 
+        long start = System.nanoTime();
         String authHeader = request.getHeader(AUTHORIZATION);
 
         if (authHeader != null && authHeader.startsWith(BEARER)) {
@@ -48,7 +59,7 @@ public class JwtSlidingExpirationFilter extends OncePerRequestFilter {
 
             try {
                 Claims claims = jwtUtility.validate(token);
-                System.out.println("Token validated! User: " + claims.getSubject());
+                logger.debug("Token validated for {}", claims.getSubject());
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -58,13 +69,29 @@ public class JwtSlidingExpirationFilter extends OncePerRequestFilter {
                         );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
+                if (jwtUtility.shouldRefresh(claims)) {
+                    response.setHeader(REFRESH_TOKEN, jwtUtility.refreshToken(token, claims));
+                }
+                authenticated.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
             } catch (Exception e) {
-                System.err.println("Token validation failed: " + e.getMessage());
+                logger.warn("Token validation failed: {}", e.getMessage());
                 response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
                 return;
             }
+        } else {
+            anonymous.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mcp.auth.filter")
+                .description("JWT authentication time per request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,243 @@
+package com.naga.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-subject admission for MCP and REST calls.
+ * <p>
+ * Each authenticated subject has a token bucket ({@code mcp.admission.rate-per-second},
+ * {@code mcp.admission.burst}) and a cap on its in-flight calls
+ * ({@code mcp.admission.max-in-flight-per-subject}); all subjects together are capped at
+ * {@code mcp.admission.max-in-flight}. Both are plain atomics: the bucket is kept as its next
+ * theoretical arrival time (GCRA) and updated with a CAS.
+ * Subjects are held in a Caffeine cache that drops them after {@code mcp.admission.idle-seconds}
+ * without calls and never holds more than {@code mcp.admission.max-subjects} idle ones. A subject
+ * with calls in flight is pinned (no expiry, zero weight) so that dropping it cannot reset its
+ * in-flight count; the pin is set and cleared, with a write to the cache entry, only as its
+ * count leaves and returns to zero.
+ */
+@Component
+public class SubjectAdmissionControl {
+    private static final Logger logger = LoggerFactory.getLogger(SubjectAdmissionControl.class);
+
+    /**
+     * Why a call was shed; {@code ADMITTED} when it was not.
+     */
+    public enum Outcome {
+        ADMITTED, RATE_LIMITED, SUBJECT_BUSY, OVERLOADED
+    }
+
+    // Shed calls are retried after a second; only rate-limited ones know a better time
+    private static final Admission OVERLOADED = new Admission(Outcome.OVERLOADED, 1, null, null);
+    private static final Admission SUBJECT_BUSY = new Admission(Outcome.SUBJECT_BUSY, 1, null, null);
+    private static final Admission STREAM_ADMITTED = new Admission(Outcome.ADMITTED, 0, null, null);
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxInFlightPerSubject;
+    private final int maxInFlight;
+    private final Cache<String, Bucket> buckets;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongSupplier nanoClock;
+
+    private final Counter rateLimited;
+    private final Counter subjectBusy;
+    private final Counter overloaded;
+
+    @Autowired
+    public SubjectAdmissionControl(MeterRegistry meterRegistry,
+                                   @Value("${mcp.admission.rate-per-second:10}") double ratePerSecond,
+                                   @Value("${mcp.admission.burst:20}") int burst,
+                                   @Value("${mcp.admission.max-in-flight-per-subject:8}") int maxInFlightPerSubject,
+                                   @Value("${mcp.admission.max-in-flight:200}") int maxInFlight,
+                                   @Value("${mcp.admission.idle-seconds:600}") long idleSeconds,
+                                   @Value("${mcp.admission.max-subjects:100000}") long maxSubjects) {
+        this(meterRegistry, ratePerSecond, burst, maxInFlightPerSubject, maxInFlight, idleSeconds, maxSubjects,
+                System::nanoTime);
+    }
+
+    /**
+     * Reads time from {@code nanoClock}, which also drives idle expiry.
+     */
+    SubjectAdmissionControl(MeterRegistry meterRegistry, double ratePerSecond, int burst, int maxInFlightPerSubject,
+                            int maxInFlight, long idleSeconds, long maxSubjects, LongSupplier nanoClock) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstToleranceNanos = intervalNanos * Math.max(0, burst - 1);
+        this.maxInFlightPerSubject = maxInFlightPerSubject;
+        this.maxInFlight = maxInFlight;
+        this.nanoClock = nanoClock;
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.buckets = Caffeine.newBuilder()
+                .ticker(nanoClock::getAsLong)
+                // Re-evaluated whenever a bucket is written, i.e. when it is pinned or unpinned
+                .maximumWeight(maxSubjects)
+                .weigher((String subject, Bucket bucket) -> bucket.inFlight.get() > 0 ? 0 : 1)
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String subject, Bucket bucket, long currentTime) {
+                        return bucket.inFlight.get() > 0 ? Long.MAX_VALUE : idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String subject, Bucket bucket, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(subject, bucket, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String subject, Bucket bucket, long currentTime,
+                                                long currentDuration) {
+                        return expireAfterCreate(subject, bucket, currentTime);
+                    }
+                })
+                .build();
+
+        this.rateLimited = rejections(meterRegistry, "rate_limited");
+        this.subjectBusy = rejections(meterRegistry, "subject_busy");
+        this.overloaded = rejections(meterRegistry, "overloaded");
+        Gauge.builder("mcp.admission.in_flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("mcp.admission.subjects", buckets, Cache::estimatedSize).register(meterRegistry);
+
+        logger.info("SubjectAdmissionControl initialized: rate={}/s, burst={}, maxInFlightPerSubject={}, maxInFlight={}",
+                ratePerSecond, burst, maxInFlightPerSubject, maxInFlight);
+    }
+
+    /**
+     * Admits a call of the subject or says why not. An admitted call that {@code holdsSlot}
+     * counts against the in-flight caps until its {@link Admission#release()}; one that does
+     * not (a long-lived stream) only takes a token.
+     */
+    public Admission admit(String subject, boolean holdsSlot) {
+        Bucket bucket = buckets.get(subject, key -> new Bucket(key, nanoClock.getAsLong()));
+
+        if (holdsSlot) {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                overloaded.increment();
+                return OVERLOADED;
+            }
+            int subjectInFlight = bucket.inFlight.incrementAndGet();
+            if (subjectInFlight > maxInFlightPerSubject) {
+                release(bucket);
+                subjectBusy.increment();
+                return SUBJECT_BUSY;
+            }
+            if (subjectInFlight == 1 && buckets.asMap().compute(subject,
+                    (key, current) -> current == null ? bucket : current) != bucket) {
+                // Dropped while idle and already recreated by another call: count against that one
+                release(bucket);
+                return admit(subject, true);
+            }
+        }
+
+        long waitNanos = bucket.take(nanoClock.getAsLong(), intervalNanos, burstToleranceNanos);
+        if (waitNanos > 0) {
+            if (holdsSlot) {
+                release(bucket);
+            }
+            rateLimited.increment();
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+            return new Admission(Outcome.RATE_LIMITED, retryAfterSeconds, null, null);
+        }
+        return holdsSlot ? new Admission(Outcome.ADMITTED, 0, bucket, this) : STREAM_ADMITTED;
+    }
+
+    private void release(Bucket bucket) {
+        inFlight.decrementAndGet();
+        if (bucket.inFlight.decrementAndGet() == 0) {
+            // Unpin: the rewrite re-weighs the bucket and restarts its idle expiry
+            buckets.asMap().computeIfPresent(bucket.subject, (key, current) -> current);
+        }
+    }
+
+    /**
+     * Runs pending evictions now instead of on the cache's maintenance executor.
+     */
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("mcp.admission.rejected")
+                .description("Calls shed by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Result of {@link #admit}; an admitted call releases it exactly once when it finishes.
+     */
+    public static final class Admission {
+        private final Outcome outcome;
+        private final long retryAfterSeconds;
+        private final Bucket bucket;
+        private final SubjectAdmissionControl admissionControl;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Admission(Outcome outcome, long retryAfterSeconds, Bucket bucket,
+                          SubjectAdmissionControl admissionControl) {
+            this.outcome = outcome;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.bucket = bucket;
+            this.admissionControl = admissionControl;
+        }
+
+        public Outcome outcome() {
+            return outcome;
+        }
+
+        public long retryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void release() {
+            if (bucket != null && released.compareAndSet(false, true)) {
+                admissionControl.release(bucket);
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final String subject;
+        private final AtomicLong theoreticalArrival;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Bucket(String subject, long now) {
+            this.subject = subject;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        /**
+         * Takes one token; returns 0, or how long until one is available.
+         */
+        private long take(long now, long intervalNanos, long burstToleranceNanos) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = Math.max(arrival, now);
+                long wait = start - now - burstToleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.naga.github;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cached pull request listing together with the per-page validators GitHub returned for it.
+ */
+public final class CachedPullRequests {
+
+    /**
+     * One page of a listing and its ETag.
+     */
+    public record Page(List<PullRequestSummary> pullRequests, String etag) {
+    }
+
+    private final List<Page> pages;
+    private final List<PullRequestSummary> pullRequests;
+    private final long fetchedAtNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public CachedPullRequests(List<Page> pages, int maxItems) {
+        this.pages = List.copyOf(pages);
+        List<PullRequestSummary> all = new ArrayList<>();
+        for (Page page : this.pages) {
+            all.addAll(page.pullRequests());
+        }
+        if (maxItems > 0 && all.size() > maxItems) {
+            all = all.subList(0, maxItems);
+        }
+        this.pullRequests = List.copyOf(all);
+        this.fetchedAtNanos = System.nanoTime();
+    }
+
+    private CachedPullRequests(CachedPullRequests previous) {
+        this.pages = previous.pages;
+        this.pullRequests = previous.pullRequests;
+        this.fetchedAtNanos = System.nanoTime();
+    }
+
+    public List<PullRequestSummary> pullRequests() {
+        return pullRequests;
+    }
+
+    public List<Page> pages() {
+        return pages;
+    }
+
+    /**
+     * Returns the page with the given 1-based number, or null if it was not part of this listing.
+     */
+    public Page page(int pageNumber) {
+        return pageNumber >= 1 && pageNumber <= pages.size() ? pages.get(pageNumber - 1) : null;
+    }
+
+    /**
+     * Returns a copy with a new fetch time, for when GitHub answered 304 Not Modified for every page.
+     */
+    public CachedPullRequests revalidated() {
+        return new CachedPullRequests(this);
+    }
+
+    boolean isFresh(long ttlNanos) {
+        return System.nanoTime() - fetchedAtNanos < ttlNanos;
+    }
+
+    boolean tryStartRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    void refreshFinished() {
+        refreshing.set(false);
+    }
+}
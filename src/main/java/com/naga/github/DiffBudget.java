@@ -0,0 +1,78 @@
+package com.naga.github;
+
+/**
+ * Byte and line allowance shared by all files of one files/diff response.
+ * <p>
+ * A file's entry is charged when the file starts, then its patch lines are taken while both
+ * last (a patch stops at its first line that does not fit). Patches may not use the last
+ * quarter of the bytes, so later files are still listed, without patch, until the bytes run
+ * out, at which point the budget is full and the response ends. Lines longer than
+ * {@link #MAX_LINE_LENGTH} are cut. Used by one decoder at a time.
+ */
+final class DiffBudget {
+
+    static final int MAX_LINE_LENGTH = 1024;
+
+    // Approximate JSON cost of a file entry besides its path and patch
+    private static final int ENTRY_BYTES = 96;
+
+    private final int entryReserve;
+    private int remainingBytes;
+    private int remainingLines;
+    private volatile boolean full;
+
+    DiffBudget(int maxBytes, int maxLines) {
+        this.entryReserve = maxBytes / 4;
+        this.remainingBytes = maxBytes;
+        this.remainingLines = maxLines;
+    }
+
+    /**
+     * Charges a file entry, before its patch; false (and the budget is full) when it does not fit.
+     */
+    boolean addFile(String path) {
+        int cost = ENTRY_BYTES + utf8Length(path);
+        if (full || cost > remainingBytes) {
+            full = true;
+            return false;
+        }
+        remainingBytes -= cost;
+        return true;
+    }
+
+    /**
+     * Appends one patch line and its newline if it fits; false otherwise.
+     */
+    boolean addLine(StringBuilder patch, CharSequence line) {
+        int cost = utf8Length(line) + 1;
+        if (remainingLines == 0 || cost > remainingBytes - entryReserve) {
+            return false;
+        }
+        remainingLines--;
+        remainingBytes -= cost;
+        patch.append(line).append('\n');
+        return true;
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    private static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
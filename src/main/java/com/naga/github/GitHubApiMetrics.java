@@ -0,0 +1,66 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every GitHub API call as {@code github.api.requests}, tagged by endpoint and status.
+ * <p>
+ * The endpoint tag is the URI template of the call, taken from {@link #ENDPOINT_ATTRIBUTE}
+ * or the WebClient URI template, so owners, repositories and page numbers do not create
+ * new series. The timer covers the exchange up to the response headers; calls held back
+ * by {@link GitHubRequestScheduler} are timed from the moment they are sent.
+ */
+@Component
+public class GitHubApiMetrics {
+
+    /** WebClient request attribute naming the endpoint (URI template) of a call. */
+    public static final String ENDPOINT_ATTRIBUTE = GitHubApiMetrics.class.getName() + ".endpoint";
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private final MeterRegistry meterRegistry;
+
+    public GitHubApiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * WebClient filter recording the latency of each exchange.
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            String endpoint = endpoint(request);
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return next.exchange(request)
+                        .doOnNext(response -> record(endpoint, String.valueOf(response.statusCode().value()), start))
+                        .doOnError(error -> record(endpoint, "IO_ERROR", start));
+            });
+        };
+    }
+
+    private void record(String endpoint, String status, long startNanos) {
+        Timer.builder("github.api.requests")
+                .description("GitHub API latency up to the response headers")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String endpoint(ClientRequest request) {
+        return request.attribute(ENDPOINT_ATTRIBUTE)
+                .or(() -> request.attribute(URI_TEMPLATE_ATTRIBUTE))
+                .map(Object::toString)
+                .orElse("unknown");
+    }
+}
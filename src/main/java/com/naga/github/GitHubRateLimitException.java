@@ -0,0 +1,12 @@
+package com.naga.github;
+
+/**
+ * Thrown when a GitHub call is refused locally because the rate-limit budget
+ * is exhausted or the request could not be scheduled in time.
+ */
+public class GitHubRateLimitException extends RuntimeException {
+
+    public GitHubRateLimitException(String message) {
+        super(message);
+    }
+}
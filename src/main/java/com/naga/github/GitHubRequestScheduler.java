@@ -0,0 +1,324 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate-limit-aware admission for every request sent through the GitHub WebClient.
+ * <p>
+ * The budget is an adaptive token bucket: once GitHub has reported
+ * {@code X-RateLimit-Remaining} and {@code X-RateLimit-Reset}, tokens refill at the rate
+ * that spreads the remaining quota over the rest of the window. {@code Retry-After} and
+ * exhausted-quota responses pause all calls until GitHub allows them again. Requests that
+ * cannot start immediately wait in a priority queue (interactive before background) for
+ * at most the configured wait; when the budget is known to be spent for longer than that,
+ * they fail fast with {@link GitHubRateLimitException} instead of reaching GitHub.
+ */
+@Component
+public class GitHubRequestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubRequestScheduler.class);
+
+    /** WebClient request attribute holding the {@link Priority} of a call. Defaults to interactive. */
+    public static final String PRIORITY_ATTRIBUTE = GitHubRequestScheduler.class.getName() + ".priority";
+
+    private static final long MIN_DRAIN_DELAY_MILLIS = 10;
+    private static final long MAX_DRAIN_DELAY_MILLIS = 1000;
+
+    public enum Priority {
+        /** Calls a client is waiting on (MCP tools, REST API). */
+        INTERACTIVE,
+        /** Cache revalidation and other work nobody is waiting on. */
+        BACKGROUND
+    }
+
+    private final int burst;
+    private final long backgroundReserve;
+    private final long minRemaining;
+    private final int maxQueueSize;
+    private final Duration maxWait;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private long sequence;
+    private boolean drainScheduled;
+
+    // Budget state, guarded by lock. remaining < 0 means GitHub has not reported a budget yet.
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private long remaining = -1;
+    private long resetEpochSecond;
+    private long pausedUntilMillis;
+
+    private final Counter rejected;
+
+    public GitHubRequestScheduler(MeterRegistry meterRegistry,
+                                  @Value("${github.ratelimit.burst:20}") int burst,
+                                  @Value("${github.ratelimit.background-reserve:500}") long backgroundReserve,
+                                  @Value("${github.ratelimit.min-remaining:5}") long minRemaining,
+                                  @Value("${github.ratelimit.max-queue-size:500}") int maxQueueSize,
+                                  @Value("${github.ratelimit.max-wait-ms:5000}") long maxWaitMillis) {
+        this.burst = burst;
+        this.backgroundReserve = backgroundReserve;
+        this.minRemaining = minRemaining;
+        this.maxQueueSize = maxQueueSize;
+        this.maxWait = Duration.ofMillis(maxWaitMillis);
+        this.tokens = burst;
+
+        this.rejected = meterRegistry.counter("github.ratelimit.rejected");
+        Gauge.builder("github.ratelimit.remaining", this, scheduler -> scheduler.remaining)
+                .register(meterRegistry);
+        Gauge.builder("github.ratelimit.queued", this, GitHubRequestScheduler::queued)
+                .register(meterRegistry);
+    }
+
+    /**
+     * WebClient filter that admits each request through the scheduler and feeds the
+     * rate-limit headers of every response back into the budget.
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            Priority priority = request.attribute(PRIORITY_ATTRIBUTE)
+                    .map(Priority.class::cast)
+                    .orElse(Priority.INTERACTIVE);
+            return acquire(priority)
+                    .then(Mono.defer(() -> next.exchange(request)))
+                    .doOnNext(response -> observe(response.statusCode(), response.headers().asHttpHeaders()));
+        };
+    }
+
+    /**
+     * Completes when a request with the given priority may be sent.
+     */
+    public Mono<Void> acquire(Priority priority) {
+        Mono<Void> permit = Mono.create(sink -> {
+            String rejection;
+            Pending pending = null;
+            boolean granted = false;
+
+            lock.lock();
+            try {
+                refill();
+                rejection = rejectionReason(priority);
+                if (rejection == null) {
+                    if (queue.isEmpty() && tryTake(priority)) {
+                        granted = true;
+                    } else {
+                        pending = new Pending(priority, sequence++, sink);
+                        queue.add(pending);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (rejection != null) {
+                rejected.increment();
+                sink.error(new GitHubRateLimitException(rejection));
+            } else if (granted) {
+                sink.success();
+            } else {
+                Pending queued = pending;
+                sink.onCancel(() -> remove(queued));
+                scheduleDrain(0);
+            }
+        });
+        return permit.timeout(maxWait, Mono.error(() -> {
+            rejected.increment();
+            return new GitHubRateLimitException("GitHub request not scheduled within " + maxWait.toMillis()
+                    + "ms: rate-limit budget exhausted (remaining=" + remaining + ")");
+        }));
+    }
+
+    /**
+     * Updates the budget from a GitHub response.
+     */
+    public void observe(HttpStatusCode status, HttpHeaders headers) {
+        String remainingHeader = headers.getFirst("X-RateLimit-Remaining");
+        String resetHeader = headers.getFirst("X-RateLimit-Reset");
+        String resource = headers.getFirst("X-RateLimit-Resource");
+        if (resource != null && !"core".equals(resource)) {
+            // GraphQL and search have budgets of their own; the bucket tracks the REST quota
+            remainingHeader = null;
+        }
+        String retryAfterHeader = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        boolean limited = status.value() == 403 || status.value() == 429;
+
+        lock.lock();
+        try {
+            if (remainingHeader != null && resetHeader != null) {
+                remaining = Long.parseLong(remainingHeader);
+                resetEpochSecond = Long.parseLong(resetHeader);
+            }
+            if (limited && retryAfterHeader != null) {
+                pausedUntilMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfterHeader));
+                logger.warn("GitHub secondary rate limit hit, pausing calls for {}s", retryAfterHeader);
+            } else if (limited && remaining == 0) {
+                pausedUntilMillis = TimeUnit.SECONDS.toMillis(resetEpochSecond);
+                logger.warn("GitHub rate limit exhausted, pausing calls until {}", Instant.ofEpochSecond(resetEpochSecond));
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed rate-limit headers: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    private int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Pending pending) {
+        lock.lock();
+        try {
+            queue.remove(pending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<Pending> granted = new ArrayList<>();
+        long delay = -1;
+
+        lock.lock();
+        try {
+            drainScheduled = false;
+            refill();
+            while (!queue.isEmpty() && tryTake(queue.peek().priority())) {
+                granted.add(queue.poll());
+            }
+            if (!queue.isEmpty()) {
+                delay = nextDrainDelayMillis();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Pending pending : granted) {
+            pending.sink().success();
+        }
+        if (delay >= 0) {
+            scheduleDrain(delay);
+        }
+    }
+
+    private void scheduleDrain(long delayMillis) {
+        lock.lock();
+        try {
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        Schedulers.parallel().schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The methods below must be called with the lock held.
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+
+        long nowSecond = System.currentTimeMillis() / 1000;
+        if (remaining >= 0 && nowSecond >= resetEpochSecond) {
+            // The window has reset; wait for GitHub to report the new budget.
+            remaining = -1;
+        }
+        if (remaining < 0) {
+            tokens = burst;
+            return;
+        }
+        double rate = (double) remaining / Math.max(1, resetEpochSecond - nowSecond);
+        tokens = Math.min(burst, tokens + elapsedSeconds * rate);
+    }
+
+    private boolean tryTake(Priority priority) {
+        if (System.currentTimeMillis() < pausedUntilMillis) {
+            return false;
+        }
+        if (remaining >= 0) {
+            if (remaining <= minRemaining) {
+                return false;
+            }
+            if (priority == Priority.BACKGROUND && remaining <= backgroundReserve) {
+                return false;
+            }
+        }
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        if (remaining > 0) {
+            remaining--;
+        }
+        return true;
+    }
+
+    private String rejectionReason(Priority priority) {
+        if (queue.size() >= maxQueueSize) {
+            return "GitHub request queue is full (" + maxQueueSize + " pending)";
+        }
+        long now = System.currentTimeMillis();
+        if (pausedUntilMillis - now > maxWait.toMillis()) {
+            return "GitHub rate limit in effect until " + Instant.ofEpochMilli(pausedUntilMillis);
+        }
+        long resetMillis = TimeUnit.SECONDS.toMillis(resetEpochSecond);
+        boolean budgetSpent = remaining >= 0
+                && (remaining <= minRemaining || (priority == Priority.BACKGROUND && remaining <= backgroundReserve));
+        if (budgetSpent && resetMillis - now > maxWait.toMillis()) {
+            return "GitHub rate limit nearly exhausted (remaining=" + remaining + "), resets at "
+                    + Instant.ofEpochSecond(resetEpochSecond);
+        }
+        return null;
+    }
+
+    private long nextDrainDelayMillis() {
+        long now = System.currentTimeMillis();
+        long delay;
+        if (now < pausedUntilMillis) {
+            delay = pausedUntilMillis - now;
+        } else if (remaining >= 0 && tokens < 1) {
+            double rate = (double) remaining / Math.max(1, resetEpochSecond - now / 1000);
+            delay = rate > 0 ? (long) Math.ceil((1 - tokens) / rate * 1000) : MAX_DRAIN_DELAY_MILLIS;
+        } else {
+            delay = MAX_DRAIN_DELAY_MILLIS;
+        }
+        return Math.max(MIN_DRAIN_DELAY_MILLIS, Math.min(MAX_DRAIN_DELAY_MILLIS, delay));
+    }
+
+    private record Pending(Priority priority, long sequence, MonoSink<Void> sink) implements Comparable<Pending> {
+        @Override
+        public int compareTo(Pending other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -8,16 +8,26 @@ import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * GitHub MCP Tools Service
@@ -27,6 +37,16 @@ import java.util.Map;
 public class GitHubToolsService {
     private static final Logger logger = LoggerFactory.getLogger(GitHubToolsService.class);
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String PULLS_ENDPOINT = "/{owner}/{repo}/pulls";
+    private static final String USER_REPOS_ENDPOINT = "/users/{owner}/repos";
+    private static final String ORG_REPOS_ENDPOINT = "/orgs/{owner}/repos";
+    private static final String AUTHENTICATED_REPOS_ENDPOINT = "/user/repos";
+    private static final String AUTHENTICATED_USER_ENDPOINT = "/user";
+    private static final String PULL_ENDPOINT = "/{owner}/{repo}/pulls/{number}";
+    private static final String PULL_FILES_ENDPOINT = "/{owner}/{repo}/pulls/{number}/files";
+    private static final MediaType DIFF_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.github.diff");
+    // GitHub lists at most 3,000 files of a pull request, 100 per page
+    private static final int MAX_FILE_PAGES = 30;
 
     @Value("${github.owner}")
     private String githubOwner;
@@ -37,18 +57,62 @@ public class GitHubToolsService {
     @Value("${github.api.bearer.token}")
     private String gitHubToken;
 
+    @Value("${github.pagination.per-page:100}")
+    private int perPage;
+
+    @Value("${github.pagination.max-concurrency:4}")
+    private int pageConcurrency;
+
+    @Value("${github.pagination.max-items:0}")
+    private int maxItems;
+
+    @Value("${github.fetch.strategy:rest}")
+    private String fetchStrategy;
+
+    @Value("${github.diff.max-bytes:65536}")
+    private int diffMaxBytes;
+
+    @Value("${github.diff.max-lines:2000}")
+    private int diffMaxLines;
+
     private final WebClient webClient;
+    private final PullRequestCache pullRequestCache;
+    private final RequestCoalescer requestCoalescer;
+    private final PullRequestIndex pullRequestIndex;
+    private final PullRequestGraphQlFetcher graphQlFetcher;
+    private final URI apiRoot;
+    // The login of the token's user, looked up once
+    private final Mono<String> authenticatedLogin;
 
     @Autowired
-    public GitHubToolsService(@Qualifier("GITHUB_WEBCLIENT") WebClient webClient) {
+    public GitHubToolsService(@Qualifier("GITHUB_WEBCLIENT") WebClient webClient,
+                              PullRequestCache pullRequestCache,
+                              RequestCoalescer requestCoalescer,
+                              PullRequestIndex pullRequestIndex,
+                              PullRequestGraphQlFetcher graphQlFetcher,
+                              @Qualifier("GITHUB_API_ROOT") URI apiRoot) {
         this.webClient = webClient;
+        this.pullRequestCache = pullRequestCache;
+        this.requestCoalescer = requestCoalescer;
+        this.pullRequestIndex = pullRequestIndex;
+        this.graphQlFetcher = graphQlFetcher;
+        this.apiRoot = apiRoot;
+        this.authenticatedLogin = Mono.defer(() -> webClient.get()
+                        .uri(apiRoot + AUTHENTICATED_USER_ENDPOINT)
+                        .header("Authorization", "Bearer " + gitHubToken)
+                        .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, AUTHENTICATED_USER_ENDPOINT)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .map(user -> user.path("login").asText()))
+                .timeout(TIMEOUT)
+                .cache(login -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
     }
 
     /**
      * Retrieves all pull requests for the configured repository
      *
      * @param state Filter by pull request state (open, closed, all). Defaults to "open"
-     * @return List of pull request details
+     * @return Pull request details, emitted as they are decoded when the listing is not cached
      */
     @Tool(
             name = "getAllPullRequests",
@@ -56,67 +120,487 @@ public class GitHubToolsService {
                     "Returns PR number, title, state, author, and creation date for each pull request. " +
                     "State parameter can be: 'open', 'closed', or 'all'. Defaults to 'open' if not specified."
     )
-    public Mono<List<Map<String, Object>>> getAllPullRequests(
+    public Flux<PullRequestSummary> getAllPullRequests(
             @ToolParam(
                     description = "Filter pull requests by state: 'open', 'closed', or 'all'. Defaults to 'open'",
                     required = false
             ) String state) {
 
-        long startTime = System.currentTimeMillis();
-        logger.info("GitHub API: Fetching PRs state={}", state);
+        return streamPullRequests(githubOwner, githubRepo, state);
+    }
+
+    /**
+     * Lists the files changed by a pull request of the configured repository
+     *
+     * @param pullNumber Pull request number
+     * @return One summary per file, emitted as the pages are decoded, until the response budget is spent
+     */
+    @Tool(
+            name = "getPullRequestFiles",
+            description = "Lists the files changed by a pull request of the GitHub repository. " +
+                    "Returns path, status, additions, deletions and the patch of each file. " +
+                    "Large pull requests are cut to a size budget: patches marked truncated are incomplete, " +
+                    "and files beyond the budget are left out."
+    )
+    public Flux<PullRequestFileSummary> getPullRequestFiles(
+            @ToolParam(description = "Pull request number") Integer pullNumber) {
+
+        return Flux.defer(() -> {
+            DiffBudget budget = new DiffBudget(diffMaxBytes, diffMaxLines);
+            AtomicBoolean morePages = new AtomicBoolean(true);
+            return Flux.range(1, MAX_FILE_PAGES)
+                    .takeWhile(page -> morePages.get() && !budget.isFull())
+                    .concatMap(page -> filesPage(pullNumber, page, budget, morePages), 0)
+                    .timeout(TIMEOUT);
+        });
+    }
+
+    /**
+     * Summarizes the unified diff of a pull request of the configured repository
+     *
+     * @param pullNumber Pull request number
+     * @return One summary per file of the diff, emitted as the diff is read, until the response budget is spent
+     */
+    @Tool(
+            name = "getPullRequestDiff",
+            description = "Reads the unified diff of a pull request of the GitHub repository. " +
+                    "Returns path, status, additions, deletions and the hunks of each file in the diff. " +
+                    "Large diffs are cut to a size budget: hunks marked truncated are incomplete, " +
+                    "and files beyond the budget are left out."
+    )
+    public Flux<PullRequestFileSummary> getPullRequestDiff(
+            @ToolParam(description = "Pull request number") Integer pullNumber) {
+
+        return Flux.defer(() -> {
+            DiffBudget budget = new DiffBudget(diffMaxBytes, diffMaxLines);
+            return webClient.get()
+                    .uri(PULL_ENDPOINT, githubOwner, githubRepo, pullNumber)
+                    .header("Authorization", "Bearer " + gitHubToken)
+                    .accept(DIFF_MEDIA_TYPE)
+                    .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, PULL_ENDPOINT)
+                    .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, GitHubRequestScheduler.Priority.INTERACTIVE)
+                    .exchangeToFlux(response -> response.statusCode().isError()
+                            ? GitHubToolsService.<PullRequestFileSummary>apiError(response).flux()
+                            : UnifiedDiffDecoder.decode(response.bodyToFlux(DataBuffer.class), budget))
+                    .doOnComplete(() -> logger.debug("GitHub API: Read diff of PR #{}, budget full={}",
+                            pullNumber, budget.isFull()))
+                    .timeout(TIMEOUT);
+        });
+    }
+
+    private Flux<PullRequestFileSummary> filesPage(Integer pullNumber, int pageNumber, DiffBudget budget,
+                                                   AtomicBoolean morePages) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(PULL_FILES_ENDPOINT)
+                        .queryParam("per_page", perPage)
+                        .queryParam("page", pageNumber)
+                        .build(githubOwner, githubRepo, pullNumber))
+                .header("Authorization", "Bearer " + gitHubToken)
+                .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, PULL_FILES_ENDPOINT)
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, GitHubRequestScheduler.Priority.INTERACTIVE)
+                .exchangeToFlux(response -> {
+                    if (response.statusCode().isError()) {
+                        return GitHubToolsService.<PullRequestFileSummary>apiError(response).flux();
+                    }
+                    int lastPage = LinkHeader.lastPage(
+                            response.headers().asHttpHeaders().getFirst(HttpHeaders.LINK), pageNumber);
+                    morePages.set(pageNumber < lastPage);
+                    return PullRequestFilesDecoder.decode(response.bodyToFlux(DataBuffer.class), budget);
+                });
+    }
+
+    /**
+     * Pull requests of any repository as a stream: from the index or the cache when they hold
+     * the listing, otherwise decoded page by page from GitHub and cached once complete.
+     */
+    Flux<PullRequestSummary> streamPullRequests(String owner, String repo, String state) {
+        String prState = (state == null || state.isBlank()) ? "open" : state.toLowerCase();
+        PullRequestQuery query = new PullRequestQuery(owner, repo, prState);
+
+        if (pullRequestIndex.isReady() && owner.equals(githubOwner) && repo.equals(githubRepo)) {
+            List<PullRequestSummary> pullRequests = pullRequestIndex.list(prState);
+            return Flux.fromIterable(maxItems > 0 && pullRequests.size() > maxItems
+                    ? pullRequests.subList(0, maxItems)
+                    : pullRequests);
+        }
+        if (useGraphQl()) {
+            // A GraphQL listing arrives in one document per round, so there is nothing to stream early
+            return pullRequests(owner, repo, state).flatMapIterable(pullRequests -> pullRequests);
+        }
+        return pullRequestCache.stream(query,
+                previous -> requestCoalescer.execute(query, () -> fetchPullRequests(query, previous)),
+                // Concurrent misses share one paginated fetch, replayed to those that join late
+                onComplete -> requestCoalescer.stream(query, () -> streamFetch(query, onComplete)));
+    }
+
+    /**
+     * Pull requests of any repository, through the cache (or the index for the configured repository).
+     */
+    Mono<List<PullRequestSummary>> pullRequests(String owner, String repo, String state) {
+        logger.debug("GitHub API: Fetching PRs of {}/{} state={}", owner, repo, state);
 
         // Set default state if not provided
         String prState = (state == null || state.isBlank()) ? "open" : state.toLowerCase();
+        PullRequestQuery query = new PullRequestQuery(owner, repo, prState);
+
+        if (pullRequestIndex.isReady() && owner.equals(githubOwner) && repo.equals(githubRepo)) {
+            // Kept current from the on-disk snapshot and incremental syncs
+            List<PullRequestSummary> pullRequests = pullRequestIndex.list(prState);
+            return Mono.just(maxItems > 0 && pullRequests.size() > maxItems
+                    ? pullRequests.subList(0, maxItems)
+                    : pullRequests);
+        }
+        return pullRequestCache.get(query, previous ->
+                requestCoalescer.execute(query, () -> fetchPullRequests(query, previous)));
+    }
+
+    /**
+     * Fetches every page of a pull request listing from GitHub. The first page is fetched
+     * alone to learn the page count from its Link header, the remaining pages are then
+     * fetched concurrently and reassembled in order. Each page is revalidated against the
+     * previous entry's ETag; if GitHub answers 304 for every page the previous entry is returned.
+     */
+    private Mono<CachedPullRequests> fetchPullRequests(PullRequestQuery query, CachedPullRequests previous) {
+        if (useGraphQl()) {
+            return fetchPullRequestsGraphQl(query, previous);
+        }
+        int maxPages = maxItems > 0 ? (maxItems + perPage - 1) / perPage : Integer.MAX_VALUE;
 
         try {
-            // Make synchronous blocking call for MCP compatibility
-            Mono<List<JsonNode>> pullRequestsMono = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/{owner}/{repo}/pulls")
-                            .queryParam("state", prState)
-                            .build(githubOwner, githubRepo))
-                    .header("Authorization", "Bearer " + gitHubToken)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::isError, response -> {
-                        logger.error("GitHub API error: {}", response.statusCode());
-                        return response.bodyToMono(String.class)
-                                .flatMap(body -> {
-                                    String errorMsg = "GitHub API error " + response.statusCode() + ": " + body;
-                                    return reactor.core.publisher.Mono.error(new RuntimeException(errorMsg));
-                                });
+            return fetchPage(query, 1, previous)
+                    .flatMap(first -> {
+                        int lastPage = Math.min(first.lastPage(), maxPages);
+                        Flux<FetchedPage> remaining = Flux.range(2, Math.max(0, lastPage - 1))
+                                .flatMapSequential(page -> fetchPage(query, page, previous), pageConcurrency);
+                        return Flux.concat(Mono.just(first), remaining).collectList();
+                    })
+                    .map(fetched -> {
+                        boolean unchanged = previous != null
+                                && fetched.size() == previous.pages().size()
+                                && fetched.stream().allMatch(FetchedPage::notModified);
+                        if (unchanged) {
+                            logger.info("GitHub API: PRs not modified for state={}, pages={}",
+                                    query.state(), fetched.size());
+                            return previous.revalidated();
+                        }
+                        List<CachedPullRequests.Page> pages = new ArrayList<>(fetched.size());
+                        for (FetchedPage page : fetched) {
+                            pages.add(page.page());
+                        }
+                        CachedPullRequests result = new CachedPullRequests(pages, maxItems);
+                        if (result.pullRequests().isEmpty()) {
+                            logger.info("No pull requests found for state: {}", query.state());
+                        }
+                        logger.info("GitHub API: Successfully Retrieved {} PRs, pages={}",
+                                result.pullRequests().size(), pages.size());
+                        return result;
                     })
-                    .bodyToFlux(JsonNode.class)
-                    .collectList()
                     .timeout(TIMEOUT);
 
-            return pullRequestsMono.map(pullRequests -> {
-                long githubElapsed = System.currentTimeMillis() - startTime;
-                if (pullRequests == null || pullRequests.isEmpty()) {
-                    logger.info("No pull requests found for state: {}", prState);
-                    logger.info("GitHub API: No PRs found, duration={}ms", githubElapsed);
-                    return new ArrayList<>();
-                }
-                List<Map<String, Object>> result = new ArrayList<>();
-                for (JsonNode pr : pullRequests) {
-                    Map<String, Object> prMap = new HashMap<>();
-                    prMap.put("number", pr.get("number").asInt());
-                    prMap.put("title", pr.get("title").asText());
-                    prMap.put("state", pr.get("state").asText());
-                    prMap.put("author", pr.get("user").get("login").asText());
-                    prMap.put("created_at", pr.get("created_at").asText());
-                    prMap.put("url", pr.get("html_url").asText());
-                    result.add(prMap);
-                }
-
-                long totalElapsed = System.currentTimeMillis() - startTime;
-                logger.info("GitHub API: Successfully Retrieved {} PRs, api={}ms, total={}ms",
-                        result.size(), githubElapsed, totalElapsed);
-                return result;
-            });
-
         } catch (Exception e) {
             logger.error("Error retrieving pull requests: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to retrieve pull requests: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Fetches a listing through GitHub's GraphQL API. GraphQL has no conditional requests, so
+     * a stale entry is refetched in full; the previous list is kept when nothing changed.
+     */
+    private Mono<CachedPullRequests> fetchPullRequestsGraphQl(PullRequestQuery query, CachedPullRequests previous) {
+        return graphQlFetcher.fetch(query, maxItems, previous == null
+                        ? GitHubRequestScheduler.Priority.INTERACTIVE
+                        : GitHubRequestScheduler.Priority.BACKGROUND)
+                .map(pullRequests -> {
+                    if (previous != null && previous.pullRequests().equals(pullRequests)) {
+                        return previous.revalidated();
+                    }
+                    logger.info("GitHub GraphQL: Successfully Retrieved {} PRs", pullRequests.size());
+                    return new CachedPullRequests(List.of(new CachedPullRequests.Page(pullRequests, null)), maxItems);
+                })
+                .timeout(TIMEOUT);
+    }
+
+    private boolean useGraphQl() {
+        return "graphql".equalsIgnoreCase(fetchStrategy);
+    }
+
+    /**
+     * Streams a listing from GitHub without a previous entry to revalidate. Items of the first
+     * page are emitted as they are decoded; the remaining pages are requested as soon as the
+     * first page's Link header is known, up to {@code pageConcurrency} at a time, and emitted in
+     * order. The complete listing is handed to {@code onComplete}. Callers share it through
+     * {@link RequestCoalescer#stream}, which reads it to the end for the cache whatever the pace
+     * of its consumers; what it buffers for them is the listing being cached anyway.
+     */
+    private Flux<PullRequestSummary> streamFetch(PullRequestQuery query, Consumer<CachedPullRequests> onComplete) {
+        int maxPages = maxItems > 0 ? (maxItems + perPage - 1) / perPage : Integer.MAX_VALUE;
+
+        return Flux.defer(() -> {
+            Sinks.One<Integer> lastPage = Sinks.one();
+            Map<Integer, CachedPullRequests.Page> pages = new ConcurrentHashMap<>();
+            AtomicInteger emitted = new AtomicInteger();
+
+            Flux<Integer> pageNumbers = Flux.concat(Mono.just(1), lastPage.asMono()
+                    .flatMapMany(last -> Flux.range(2, Math.max(0, Math.min(last, maxPages) - 1))));
+            return pageNumbers
+                    .flatMapSequential(page -> streamPage(query, page, page == 1 ? lastPage : null, pages),
+                            pageConcurrency)
+                    // The last page may run past max-items; its extra items are read but not emitted
+                    .filter(pullRequest -> maxItems <= 0 || emitted.incrementAndGet() <= maxItems)
+                    .doOnComplete(() -> {
+                        List<CachedPullRequests.Page> ordered = new ArrayList<>(pages.size());
+                        for (int page = 1; page <= pages.size(); page++) {
+                            ordered.add(pages.get(page));
+                        }
+                        CachedPullRequests result = new CachedPullRequests(ordered, maxItems);
+                        logger.info("GitHub API: Streamed {} PRs, pages={}", result.pullRequests().size(), pages.size());
+                        onComplete.accept(result);
+                    })
+                    .timeout(TIMEOUT);
+        });
+    }
+
+    private Flux<PullRequestSummary> streamPage(PullRequestQuery query, int pageNumber, Sinks.One<Integer> lastPage,
+                                                Map<Integer, CachedPullRequests.Page> pages) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(PULLS_ENDPOINT)
+                        .queryParam("state", query.state())
+                        .queryParam("per_page", perPage)
+                        .queryParam("page", pageNumber)
+                        .build(query.owner(), query.repo()))
+                .header("Authorization", "Bearer " + gitHubToken)
+                .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, PULLS_ENDPOINT)
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, GitHubRequestScheduler.Priority.INTERACTIVE)
+                .exchangeToFlux(response -> {
+                    if (response.statusCode().isError()) {
+                        return GitHubToolsService.<PullRequestSummary>apiError(response).flux();
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    if (lastPage != null) {
+                        lastPage.tryEmitValue(LinkHeader.lastPage(headers.getFirst(HttpHeaders.LINK), pageNumber));
+                    }
+                    String etag = headers.getETag();
+                    List<PullRequestSummary> pullRequests = new ArrayList<>(perPage);
+                    return PullRequestJsonDecoder.decode(response.bodyToFlux(DataBuffer.class))
+                            .doOnNext(pullRequests::add)
+                            .doOnComplete(() -> pages.put(pageNumber, new CachedPullRequests.Page(pullRequests, etag)));
+                });
+    }
+
+    /**
+     * Fetches one page of a listing, sending If-None-Match when the previous entry has that page.
+     * Revalidations of an existing entry are scheduled as background work.
+     */
+    private Mono<FetchedPage> fetchPage(PullRequestQuery query, int pageNumber, CachedPullRequests previous) {
+        CachedPullRequests.Page previousPage = previous == null ? null : previous.page(pageNumber);
+
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(PULLS_ENDPOINT)
+                        .queryParam("state", query.state())
+                        .queryParam("per_page", perPage)
+                        .queryParam("page", pageNumber)
+                        .build(query.owner(), query.repo()))
+                .header("Authorization", "Bearer " + gitHubToken)
+                .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, PULLS_ENDPOINT)
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, previous == null
+                        ? GitHubRequestScheduler.Priority.INTERACTIVE
+                        : GitHubRequestScheduler.Priority.BACKGROUND)
+                .headers(headers -> {
+                    if (previousPage != null && previousPage.etag() != null) {
+                        headers.setIfNoneMatch(previousPage.etag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && previousPage != null) {
+                        int lastPage = LinkHeader.lastPage(headers.getFirst(HttpHeaders.LINK), previous.pages().size());
+                        return response.releaseBody().thenReturn(new FetchedPage(lastPage, true, previousPage));
+                    }
+                    if (response.statusCode().isError()) {
+                        return apiError(response);
+                    }
+                    int lastPage = LinkHeader.lastPage(headers.getFirst(HttpHeaders.LINK), pageNumber);
+                    String etag = headers.getETag();
+                    return PullRequestJsonDecoder.decode(response.bodyToFlux(DataBuffer.class))
+                            .collectList()
+                            .map(pullRequests -> new FetchedPage(lastPage, false,
+                                    new CachedPullRequests.Page(pullRequests, etag)));
+                });
+    }
+
+    /**
+     * Fetches every pull request of a repository, most recently updated first, for the first
+     * load of the snapshot. Starting at {@code fromPage}, the first page is fetched alone to learn
+     * the page count, the rest up to {@code pageConcurrency} at a time, and each page is emitted
+     * in order as soon as it is complete. Each page has its own timeout, so a long history is
+     * not bounded as a whole.
+     */
+    Flux<UpdatedPage> fetchAllPages(String owner, String repo, int fromPage) {
+        return fetchUpdatedPage(owner, repo, fromPage, null)
+                .timeout(TIMEOUT)
+                .flatMapMany(first -> Flux.concat(Mono.just(first),
+                        Flux.range(fromPage + 1, Math.max(0, first.lastPage() - fromPage))
+                                .flatMapSequential(page -> fetchUpdatedPage(owner, repo, page, null)
+                                        .timeout(TIMEOUT), pageConcurrency)));
+    }
+
+    /**
+     * Fetches the pull requests of a repository updated at or after {@code since}, most
+     * recently updated first, paging through {@code sort=updated} until it passes that
+     * point. A null {@code since} fetches everything. The first page is revalidated with
+     * {@code etag}; a 304 means nothing changed and costs no rate-limit budget.
+     */
+    Mono<UpdatedPullRequests> fetchUpdatedSince(String owner, String repo, String since, String etag) {
+        return Flux.range(1, Integer.MAX_VALUE)
+                .concatMap(page -> fetchUpdatedPage(owner, repo, page, page == 1 ? etag : null).timeout(TIMEOUT), 0)
+                .takeUntil(page -> page.notModified()
+                        || page.number() >= page.lastPage()
+                        || page.pullRequests().isEmpty()
+                        || (since != null && page.pullRequests().get(page.pullRequests().size() - 1)
+                                .updatedAt().compareTo(since) < 0))
+                .collectList()
+                .map(pages -> {
+                    if (pages.get(0).notModified()) {
+                        return new UpdatedPullRequests(List.of(), etag, true);
+                    }
+                    List<PullRequestSummary> updated = new ArrayList<>();
+                    for (UpdatedPage page : pages) {
+                        for (PullRequestSummary pullRequest : page.pullRequests()) {
+                            if (since == null || pullRequest.updatedAt().compareTo(since) >= 0) {
+                                updated.add(pullRequest);
+                            }
+                        }
+                    }
+                    return new UpdatedPullRequests(updated, pages.get(0).etag(), false);
+                });
+    }
+
+    private Mono<UpdatedPage> fetchUpdatedPage(String owner, String repo, int pageNumber, String etag) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(PULLS_ENDPOINT)
+                        .queryParam("state", "all")
+                        .queryParam("sort", "updated")
+                        .queryParam("direction", "desc")
+                        .queryParam("per_page", perPage)
+                        .queryParam("page", pageNumber)
+                        .build(owner, repo))
+                .header("Authorization", "Bearer " + gitHubToken)
+                .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, PULLS_ENDPOINT)
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, GitHubRequestScheduler.Priority.BACKGROUND)
+                .headers(headers -> {
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        return response.releaseBody()
+                                .thenReturn(new UpdatedPage(pageNumber, pageNumber, true, List.of(), etag));
+                    }
+                    if (response.statusCode().isError()) {
+                        return apiError(response);
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    int lastPage = LinkHeader.lastPage(headers.getFirst(HttpHeaders.LINK), pageNumber);
+                    return PullRequestJsonDecoder.decode(response.bodyToFlux(DataBuffer.class))
+                            .collectList()
+                            .map(pullRequests -> new UpdatedPage(pageNumber, lastPage, false, pullRequests,
+                                    headers.getETag()));
+                });
+    }
+
+    /**
+     * Full names ({@code owner/repo}) of the non-archived repositories owned by a user or organization.
+     * The token's own user is listed through {@code /user/repos}, which includes its private
+     * repositories; any other owner is tried as an organization first, then as a user.
+     */
+    Mono<List<String>> listRepositories(String owner) {
+        return authenticatedLogin
+                .onErrorResume(e -> {
+                    // A token without access to /user (e.g. an app installation) still lists by name
+                    logger.debug("GitHub API: Could not look up the authenticated user: {}", e.getMessage());
+                    return Mono.just("");
+                })
+                .flatMap(login -> login.equalsIgnoreCase(owner)
+                        ? repositoryNames(AUTHENTICATED_REPOS_ENDPOINT, "affiliation=owner&", owner)
+                        : repositoryNames(ORG_REPOS_ENDPOINT, "", owner)
+                                .switchIfEmpty(Mono.defer(() -> repositoryNames(USER_REPOS_ENDPOINT, "", owner))))
+                .timeout(TIMEOUT);
+    }
+
+    /**
+     * Pages through a repository listing below the API root. Empty when the first page is a 404.
+     */
+    private Mono<List<String>> repositoryNames(String endpoint, String query, String owner) {
+        return Flux.range(1, Integer.MAX_VALUE)
+                .concatMap(page -> webClient.get()
+                        .uri(apiRoot + endpoint + "?" + query + "per_page={perPage}&page={page}",
+                                Map.of("owner", owner, "perPage", perPage, "page", page))
+                        .header("Authorization", "Bearer " + gitHubToken)
+                        .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, endpoint)
+                        .exchangeToMono(response -> {
+                            if (response.statusCode().value() == HttpStatus.NOT_FOUND.value() && page == 1) {
+                                return response.releaseBody().thenReturn(new RepositoryPage(page, page, null));
+                            }
+                            if (response.statusCode().isError()) {
+                                return apiError(response);
+                            }
+                            int lastPage = LinkHeader.lastPage(
+                                    response.headers().asHttpHeaders().getFirst(HttpHeaders.LINK), page);
+                            return response.bodyToFlux(JsonNode.class)
+                                    .filter(repository -> !repository.path("archived").asBoolean())
+                                    .map(repository -> repository.path("full_name").asText())
+                                    .collectList()
+                                    .map(names -> new RepositoryPage(page, lastPage, names));
+                        }), 0)
+                .takeUntil(page -> page.names() == null || page.number() >= page.lastPage() || page.names().isEmpty())
+                .collectList()
+                .flatMap(pages -> {
+                    if (pages.get(0).names() == null) {
+                        return Mono.empty();
+                    }
+                    List<String> names = new ArrayList<>();
+                    for (RepositoryPage page : pages) {
+                        names.addAll(page.names());
+                    }
+                    return Mono.just(names);
+                });
+    }
+
+    private static <T> Mono<T> apiError(ClientResponse response) {
+        logger.error("GitHub API error: {}", response.statusCode());
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .flatMap(body -> {
+                    String errorMsg = "GitHub API error " + response.statusCode() + ": " + body;
+                    return Mono.error(new RuntimeException(errorMsg));
+                });
+    }
+
+    /**
+     * Result of {@link #fetchUpdatedSince}: the updated pull requests and the ETag of the first page.
+     */
+    record UpdatedPullRequests(List<PullRequestSummary> pullRequests, String etag, boolean notModified) {
+    }
+
+    /**
+     * One page of the {@code sort=updated} listing and the page count from its Link header.
+     */
+    record UpdatedPage(int number, int lastPage, boolean notModified,
+                       List<PullRequestSummary> pullRequests, String etag) {
+    }
+
+    /**
+     * One page of a repository listing; {@code names} is null when the owner was not found.
+     */
+    private record RepositoryPage(int number, int lastPage, List<String> names) {
+    }
+
+    private record FetchedPage(int lastPage, boolean notModified, CachedPullRequests.Page page) {
+    }
 }
\ No newline at end of file
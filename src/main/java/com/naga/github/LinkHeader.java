@@ -0,0 +1,28 @@
+package com.naga.github;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses GitHub's RFC 8288 pagination Link header.
+ */
+final class LinkHeader {
+
+    private static final Pattern LAST_PAGE =
+            Pattern.compile("<[^>]*[?&]page=(\\d+)[^>]*>\\s*;\\s*rel=\"last\"");
+
+    private LinkHeader() {
+    }
+
+    /**
+     * Returns the page number of the rel="last" link, or the fallback when there is none
+     * (a single page, or the last page itself).
+     */
+    static int lastPage(String linkHeader, int fallback) {
+        if (linkHeader == null || linkHeader.isEmpty()) {
+            return fallback;
+        }
+        Matcher matcher = LAST_PAGE.matcher(linkHeader);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : fallback;
+    }
+}
@@ -0,0 +1,25 @@
+package com.naga.github;
+
+import java.util.List;
+
+/**
+ * Pull requests gathered from several repositories, newest {@code created_at} first, with
+ * the repositories that could not be read and why.
+ */
+public record MultiRepositoryPullRequests(
+        int repositories,
+        List<Entry> pullRequests,
+        List<RepositoryError> errors) {
+
+    /**
+     * A pull request and the repository ({@code owner/repo}) it belongs to.
+     */
+    public record Entry(String repository, PullRequestSummary pullRequest) {
+    }
+
+    /**
+     * A repository, or repository pattern, that contributed no results.
+     */
+    public record RepositoryError(String repository, String error) {
+    }
+}
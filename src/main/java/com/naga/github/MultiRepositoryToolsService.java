@@ -0,0 +1,195 @@
+package com.naga.github;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * MCP tools that query pull requests across several repositories.
+ * <p>
+ * Repositories are given as {@code owner/repo} or {@code owner/*} (every non-archived
+ * repository of the owner, resolved through the GitHub API and cached for
+ * {@code github.fanout.wildcard-ttl-seconds}). At most {@code github.fanout.parallelism}
+ * repositories are fetched at once, each through the shared pull request cache and under
+ * its own {@code github.fanout.repo-timeout-seconds}. The per-repository lists, each newest
+ * first, are k-way merged by {@code created_at}. A repository that fails or times out is
+ * reported in {@code errors} and the others are still returned.
+ */
+@Service
+public class MultiRepositoryToolsService {
+    private static final Logger logger = LoggerFactory.getLogger(MultiRepositoryToolsService.class);
+
+    private static final Comparator<MultiRepositoryPullRequests.Entry> NEWEST_CREATED_FIRST = Comparator
+            .comparing((MultiRepositoryPullRequests.Entry entry) -> entry.pullRequest().createdAt(),
+                    Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(MultiRepositoryPullRequests.Entry::repository)
+            .thenComparing(entry -> entry.pullRequest().number(), Comparator.reverseOrder());
+
+    private final GitHubToolsService gitHubToolsService;
+    private final List<String> configuredRepositories;
+    private final int parallelism;
+    private final Duration repoTimeout;
+    private final int maxRepositories;
+    private final int maxItems;
+    private final Duration wildcardTtl;
+    private final Cache<String, Mono<List<String>>> ownerRepositories;
+
+    public MultiRepositoryToolsService(GitHubToolsService gitHubToolsService,
+                                       @Value("${github.repositories:${github.owner}/${github.repo}}") String repositories,
+                                       @Value("${github.fanout.parallelism:8}") int parallelism,
+                                       @Value("${github.fanout.repo-timeout-seconds:10}") long repoTimeoutSeconds,
+                                       @Value("${github.fanout.max-repositories:100}") int maxRepositories,
+                                       @Value("${github.fanout.max-items:0}") int maxItems,
+                                       @Value("${github.fanout.wildcard-ttl-seconds:600}") long wildcardTtlSeconds) {
+        this.gitHubToolsService = gitHubToolsService;
+        this.configuredRepositories = split(repositories);
+        this.parallelism = parallelism;
+        this.repoTimeout = Duration.ofSeconds(repoTimeoutSeconds);
+        this.maxRepositories = maxRepositories;
+        this.maxItems = maxItems;
+        this.wildcardTtl = Duration.ofSeconds(wildcardTtlSeconds);
+        this.ownerRepositories = Caffeine.newBuilder()
+                .maximumSize(256)
+                .build();
+    }
+
+    @Tool(
+            name = "getPullRequestsAcrossRepositories",
+            description = "Retrieves pull requests from several GitHub repositories at once, merged newest first " +
+                    "by creation date. Each result names its repository. Repositories that could not be read " +
+                    "are listed under 'errors' while the others are still returned. " +
+                    "State parameter can be: 'open', 'closed', or 'all'. Defaults to 'open' if not specified."
+    )
+    public Mono<MultiRepositoryPullRequests> getPullRequestsAcrossRepositories(
+            @ToolParam(
+                    description = "Filter pull requests by state: 'open', 'closed', or 'all'. Defaults to 'open'",
+                    required = false
+            ) String state,
+            @ToolParam(
+                    description = "Comma-separated repositories as 'owner/repo', or 'owner/*' for all of an " +
+                            "owner's repositories. Defaults to the server's configured repositories",
+                    required = false
+            ) String repositories) {
+
+        List<String> patterns = repositories == null || repositories.isBlank()
+                ? configuredRepositories
+                : split(repositories);
+        Queue<MultiRepositoryPullRequests.RepositoryError> errors = new ConcurrentLinkedQueue<>();
+
+        return resolve(patterns, errors)
+                .flatMap(resolved -> Flux.fromIterable(resolved)
+                        .flatMap(repository -> fetch(repository, state, errors), parallelism)
+                        .collectList()
+                        .flatMap(this::merge)
+                        .map(merged -> new MultiRepositoryPullRequests(resolved.size(), merged, List.copyOf(errors))))
+                .doOnNext(result -> logger.debug("Fan-out over {} repositories: {} PRs, {} errors",
+                        result.repositories(), result.pullRequests().size(), result.errors().size()));
+    }
+
+    /**
+     * Expands wildcards and drops duplicates, keeping at most {@code maxRepositories}.
+     */
+    private Mono<List<String>> resolve(List<String> patterns, Queue<MultiRepositoryPullRequests.RepositoryError> errors) {
+        return Flux.fromIterable(patterns)
+                .concatMap(pattern -> {
+                    int slash = pattern.indexOf('/');
+                    if (slash <= 0 || slash == pattern.length() - 1 || pattern.indexOf('/', slash + 1) >= 0) {
+                        errors.add(new MultiRepositoryPullRequests.RepositoryError(pattern,
+                                "Expected 'owner/repo' or 'owner/*'"));
+                        return Flux.empty();
+                    }
+                    if (!pattern.endsWith("/*")) {
+                        return Flux.just(pattern);
+                    }
+                    String owner = pattern.substring(0, slash);
+                    return repositoriesOf(owner)
+                            .flatMapIterable(names -> names)
+                            .onErrorResume(e -> {
+                                errors.add(new MultiRepositoryPullRequests.RepositoryError(pattern, message(e)));
+                                return Flux.empty();
+                            });
+                })
+                .collect(LinkedHashSet<String>::new, Set::add)
+                .map(resolved -> {
+                    List<String> repositories = new ArrayList<>(resolved);
+                    if (repositories.size() > maxRepositories) {
+                        errors.add(new MultiRepositoryPullRequests.RepositoryError(
+                                String.join(",", repositories.subList(maxRepositories, repositories.size())),
+                                "Skipped: more than " + maxRepositories + " repositories requested"));
+                        return List.copyOf(repositories.subList(0, maxRepositories));
+                    }
+                    return repositories;
+                });
+    }
+
+    private Mono<List<String>> repositoriesOf(String owner) {
+        // Successful listings are kept for the TTL; failures are retried on the next call
+        return ownerRepositories.get(owner.toLowerCase(), key -> gitHubToolsService.listRepositories(owner)
+                .cache(names -> wildcardTtl, error -> Duration.ZERO, () -> Duration.ZERO));
+    }
+
+    private Mono<List<MultiRepositoryPullRequests.Entry>> fetch(
+            String repository, String state, Queue<MultiRepositoryPullRequests.RepositoryError> errors) {
+        int slash = repository.indexOf('/');
+        return gitHubToolsService.pullRequests(repository.substring(0, slash), repository.substring(slash + 1), state)
+                .timeout(repoTimeout)
+                .map(pullRequests -> {
+                    List<MultiRepositoryPullRequests.Entry> entries = new ArrayList<>(pullRequests.size());
+                    for (PullRequestSummary pullRequest : pullRequests) {
+                        entries.add(new MultiRepositoryPullRequests.Entry(repository, pullRequest));
+                    }
+                    entries.sort(NEWEST_CREATED_FIRST);
+                    return entries;
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Fan-out: {} failed: {}", repository, message(e));
+                    errors.add(new MultiRepositoryPullRequests.RepositoryError(repository, message(e)));
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * K-way merge of lists that are each sorted newest first, stopping after {@code maxItems}.
+     */
+    private Mono<List<MultiRepositoryPullRequests.Entry>> merge(List<List<MultiRepositoryPullRequests.Entry>> sorted) {
+        @SuppressWarnings("unchecked")
+        Flux<MultiRepositoryPullRequests.Entry>[] sources = sorted.stream()
+                .filter(entries -> !entries.isEmpty())
+                .map(Flux::fromIterable)
+                .toArray(Flux[]::new);
+        Flux<MultiRepositoryPullRequests.Entry> merged = Flux.mergeComparing(NEWEST_CREATED_FIRST, sources);
+        return (maxItems > 0 ? merged.take(maxItems) : merged).collectList();
+    }
+
+    private String message(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "Timed out after " + repoTimeout.toSeconds() + "s";
+        }
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private static List<String> split(String repositories) {
+        return Arrays.stream(repositories.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+}
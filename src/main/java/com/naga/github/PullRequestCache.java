@@ -0,0 +1,140 @@
+package com.naga.github;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache for GitHub pull request listings.
+ * Entries are served fresh for the configured TTL, then served stale while a
+ * background revalidation with If-None-Match runs, and evicted after the max-stale age.
+ */
+@Component
+public class PullRequestCache {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestCache.class);
+
+    private final Cache<PullRequestQuery, CachedPullRequests> cache;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter notModified;
+    private final Counter modified;
+    private final Counter evictions;
+
+    public PullRequestCache(MeterRegistry meterRegistry,
+                            @Value("${github.cache.max-entries:256}") long maxEntries,
+                            @Value("${github.cache.ttl-seconds:60}") long ttlSeconds,
+                            @Value("${github.cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(ttlSeconds, maxStaleSeconds)))
+                .removalListener((PullRequestQuery key, CachedPullRequests value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        onEviction(key, cause);
+                    }
+                })
+                .build();
+
+        this.hits = meterRegistry.counter("github.pr.cache.requests", "result", "hit");
+        this.staleHits = meterRegistry.counter("github.pr.cache.requests", "result", "stale");
+        this.misses = meterRegistry.counter("github.pr.cache.requests", "result", "miss");
+        this.notModified = meterRegistry.counter("github.pr.cache.revalidations", "result", "not_modified");
+        this.modified = meterRegistry.counter("github.pr.cache.revalidations", "result", "modified");
+        this.evictions = meterRegistry.counter("github.pr.cache.evictions");
+        Gauge.builder("github.pr.cache.size", cache, Cache::estimatedSize).register(meterRegistry);
+
+        logger.info("PullRequestCache initialized: maxEntries={}, ttl={}s, maxStale={}s",
+                maxEntries, ttlSeconds, maxStaleSeconds);
+    }
+
+    /**
+     * Returns the cached listing for the query, loading it on a miss.
+     *
+     * @param query  cache key
+     * @param loader fetches the listing; receives the previous entry (or null) so it can revalidate
+     * @return pull requests for the query
+     */
+    public Mono<List<PullRequestSummary>> get(PullRequestQuery query,
+                                               Function<CachedPullRequests, Mono<CachedPullRequests>> loader) {
+        CachedPullRequests cached = cache.getIfPresent(query);
+
+        if (cached == null) {
+            misses.increment();
+            return loader.apply(null)
+                    .doOnNext(loaded -> cache.put(query, loaded))
+                    .map(CachedPullRequests::pullRequests);
+        }
+
+        if (cached.isFresh(ttlNanos)) {
+            hits.increment();
+        } else {
+            staleHits.increment();
+            if (cached.tryStartRefresh()) {
+                revalidate(query, cached, loader);
+            }
+        }
+        return Mono.just(cached.pullRequests());
+    }
+
+    /**
+     * Like {@link #get}, but on a miss streams the listing from {@code streamingLoader} as it
+     * is decoded instead of waiting for all of it. The streaming loader hands back the complete
+     * entry, which is cached, once the last page has been read.
+     *
+     * @param query           cache key
+     * @param loader          revalidates stale entries, as for {@link #get}
+     * @param streamingLoader fetches the listing on a miss; calls its argument with the entry to cache
+     * @return pull requests for the query
+     */
+    public Flux<PullRequestSummary> stream(PullRequestQuery query,
+                                           Function<CachedPullRequests, Mono<CachedPullRequests>> loader,
+                                           Function<Consumer<CachedPullRequests>, Flux<PullRequestSummary>> streamingLoader) {
+        return Flux.defer(() -> {
+            if (cache.getIfPresent(query) == null) {
+                misses.increment();
+                return streamingLoader.apply(loaded -> cache.put(query, loaded));
+            }
+            return get(query, loader).flatMapIterable(pullRequests -> pullRequests);
+        });
+    }
+
+    private void revalidate(PullRequestQuery query, CachedPullRequests stale,
+                            Function<CachedPullRequests, Mono<CachedPullRequests>> loader) {
+        logger.debug("Revalidating stale PR listing {}", query);
+        loader.apply(stale)
+                .doFinally(signal -> stale.refreshFinished())
+                .subscribe(
+                        refreshed -> {
+                            if (refreshed.pullRequests() == stale.pullRequests()) {
+                                notModified.increment();
+                            } else {
+                                modified.increment();
+                            }
+                            cache.put(query, refreshed);
+                        },
+                        error -> logger.warn("Revalidation failed for {}, serving stale data: {}",
+                                query, error.getMessage()));
+    }
+
+    private void onEviction(PullRequestQuery key, RemovalCause cause) {
+        evictions.increment();
+        logger.debug("Evicted PR listing {} ({})", key, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.naga.github;
+
+/**
+ * One changed file of a pull request: its path, status and line counts, and as much of its
+ * patch (the hunks) as the response budget allowed. {@code truncated} is true when the patch
+ * was cut short or left out.
+ */
+public record PullRequestFileSummary(
+        String path,
+        String status,
+        int additions,
+        int deletions,
+        String patch,
+        boolean truncated) {
+}
@@ -0,0 +1,241 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for GitHub's pull request files response ({@code /pulls/{n}/files}).
+ * Like {@link PullRequestJsonDecoder} it feeds buffers into Jackson's non-blocking parser as
+ * they arrive, and only the patch lines the {@link DiffBudget} admits are kept.
+ * <p>
+ * The parser only returns a string once the whole token is buffered, so it holds each patch in
+ * full, whatever the budget. The patch is then written out of the parser's buffer segments a
+ * line at a time without another copy, and dropped at the first line the budget refuses. Peak
+ * memory is therefore about one upstream patch (two bytes per character), which only GitHub
+ * bounds: it leaves the patch out for files whose diff is too large.
+ */
+final class PullRequestFilesDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final DiffBudget budget;
+
+    private int depth;
+    private String field;
+
+    private String path;
+    private boolean admitted;
+    private String status;
+    private int additions;
+    private int deletions;
+    private StringBuilder patch;
+    private boolean truncated;
+
+    private PullRequestFilesDecoder(DiffBudget budget) {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.budget = budget;
+    }
+
+    /**
+     * Decodes one page of files until the budget is full. Each buffer is released once it has
+     * been parsed; once the budget is full the body is cancelled.
+     */
+    static Flux<PullRequestFileSummary> decode(Flux<DataBuffer> body, DiffBudget budget) {
+        return Flux.defer(() -> {
+            PullRequestFilesDecoder decoder = new PullRequestFilesDecoder(budget);
+            // Not takeWhile: it drops the buffer that ends it without releasing it
+            return body.<DataBuffer>handle((buffer, sink) -> {
+                        if (budget.isFull()) {
+                            DataBufferUtils.release(buffer);
+                            sink.complete();
+                        } else {
+                            sink.next(buffer);
+                        }
+                    })
+                    .concatMapIterable(decoder::feed, 1)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    private List<PullRequestFileSummary> feed(DataBuffer buffer) {
+        List<PullRequestFileSummary> decoded = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext() && !budget.isFull()) {
+                ByteBuffer byteBuffer = iterator.next();
+                feeder.feedInput(byteBuffer);
+                parseAvailable(decoded);
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Invalid pull request files JSON: " + e.getMessage(), e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return decoded;
+    }
+
+    private List<PullRequestFileSummary> finish() {
+        if (budget.isFull()) {
+            return List.of();
+        }
+        List<PullRequestFileSummary> decoded = new ArrayList<>();
+        feeder.endOfInput();
+        try {
+            parseAvailable(decoded);
+            parser.close();
+        } catch (IOException e) {
+            throw new DecodingException("Invalid pull request files JSON: " + e.getMessage(), e);
+        }
+        if (depth != 0) {
+            throw new DecodingException("Truncated pull request files JSON");
+        }
+        return decoded;
+    }
+
+    private void parseAvailable(List<PullRequestFileSummary> decoded) throws IOException {
+        JsonToken token;
+        while (!budget.isFull() && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_ARRAY, START_OBJECT -> {
+                    if (depth == 0 && token != JsonToken.START_ARRAY) {
+                        throw new DecodingException("Expected a JSON array of files");
+                    }
+                    depth++;
+                    if (depth == 2) {
+                        reset();
+                    }
+                }
+                case END_ARRAY, END_OBJECT -> {
+                    depth--;
+                    if (depth == 1 && admitted) {
+                        decoded.add(new PullRequestFileSummary(path, status, additions, deletions,
+                                patch == null || patch.isEmpty() ? null : patch.toString(), truncated));
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 2) {
+                        field = parser.currentName();
+                    }
+                }
+                default -> {
+                    if (depth == 2 && token != JsonToken.VALUE_NULL) {
+                        readField();
+                    }
+                }
+            }
+        }
+    }
+
+    private void readField() throws IOException {
+        switch (field) {
+            case "filename" -> {
+                // GitHub sends the filename before the patch, so the entry is charged first
+                path = parser.getText();
+                admitted = budget.addFile(path);
+            }
+            case "status" -> status = parser.getText();
+            case "additions" -> additions = parser.getIntValue();
+            case "deletions" -> deletions = parser.getIntValue();
+            case "patch" -> {
+                if (admitted) {
+                    readPatch();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Streams the patch out of the parser's buffer into the budget, a line at a time.
+     */
+    private void readPatch() throws IOException {
+        patch = new StringBuilder();
+        PatchWriter writer = new PatchWriter();
+        parser.getText(writer);
+        writer.finish();
+    }
+
+    /**
+     * Splits the patch into lines as the parser writes it and charges each to the budget. Lines
+     * are cut at {@link DiffBudget#MAX_LINE_LENGTH}; once a line does not fit, the rest of the
+     * patch is ignored.
+     */
+    private final class PatchWriter extends Writer {
+        private final StringBuilder line = new StringBuilder();
+        private boolean stopped;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            int end = offset + length;
+            for (int start = offset; start < end && !stopped; ) {
+                int newline = start;
+                while (newline < end && chars[newline] != '\n') {
+                    newline++;
+                }
+                int room = DiffBudget.MAX_LINE_LENGTH - line.length();
+                if (newline - start > room) {
+                    truncated = true;
+                }
+                line.append(chars, start, Math.min(newline - start, room));
+                if (newline == end) {
+                    return;
+                }
+                endLine();
+                start = newline + 1;
+            }
+        }
+
+        void finish() {
+            if (!stopped && !line.isEmpty()) {
+                endLine();
+            }
+        }
+
+        private void endLine() {
+            if (!budget.addLine(patch, line)) {
+                truncated = true;
+                stopped = true;
+            }
+            line.setLength(0);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private void reset() {
+        field = null;
+        path = null;
+        admitted = false;
+        status = null;
+        additions = 0;
+        deletions = 0;
+        patch = null;
+        truncated = false;
+    }
+}
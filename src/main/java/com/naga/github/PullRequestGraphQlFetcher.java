@@ -0,0 +1,252 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fetches pull request listings through GitHub's GraphQL API, asking for exactly the fields
+ * of {@link PullRequestSummary} instead of the full REST objects.
+ * <p>
+ * Listings requested within {@code github.graphql.batch-window-ms} of each other (up to
+ * {@code github.graphql.batch-size}) are sent as one document with an aliased
+ * {@code repository} field per listing. Each alias pages with its own cursor, 100 nodes at a
+ * time; later rounds only carry the aliases that have more pages. An error naming an alias
+ * (an unknown repository, say) fails that listing only.
+ */
+@Component
+public class PullRequestGraphQlFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestGraphQlFetcher.class);
+    private static final String GRAPHQL_ENDPOINT = "/graphql";
+    private static final int MAX_NODES = 100;
+
+    private static final String CONNECTION_FRAGMENT = """
+            fragment prs on PullRequestConnection {
+              pageInfo { hasNextPage endCursor }
+              nodes { number title state author { login } createdAt updatedAt url }
+            }
+            """;
+
+    private record Pending(PullRequestQuery query, int maxItems, GitHubRequestScheduler.Priority priority,
+                           List<PullRequestSummary> pullRequests, String[] cursor,
+                           Sinks.One<List<PullRequestSummary>> result) {
+    }
+
+    private final WebClient webClient;
+    private final String endpoint;
+    private final String gitHubToken;
+    private final int perPage;
+    private final int batchSize;
+    private final Duration batchWindow;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending> waiting = new ArrayList<>();
+
+    public PullRequestGraphQlFetcher(@Qualifier("GITHUB_WEBCLIENT") WebClient webClient,
+                                     @Qualifier("GITHUB_API_ROOT") URI apiRoot,
+                                     @Value("${github.graphql.endpoint:}") String endpoint,
+                                     @Value("${github.api.bearer.token}") String gitHubToken,
+                                     @Value("${github.pagination.per-page:100}") int perPage,
+                                     @Value("${github.graphql.batch-size:10}") int batchSize,
+                                     @Value("${github.graphql.batch-window-ms:5}") long batchWindowMillis) {
+        this.webClient = webClient;
+        this.endpoint = endpoint == null || endpoint.isBlank() ? apiRoot + GRAPHQL_ENDPOINT : endpoint;
+        this.gitHubToken = gitHubToken;
+        this.perPage = Math.min(perPage, MAX_NODES);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWindow = Duration.ofMillis(batchWindowMillis);
+    }
+
+    /**
+     * Fetches a listing, newest first, stopping after {@code maxItems} when that is positive.
+     * The call is batched with any others made at about the same time.
+     */
+    public Mono<List<PullRequestSummary>> fetch(PullRequestQuery query, int maxItems,
+                                                GitHubRequestScheduler.Priority priority) {
+        return Mono.defer(() -> {
+            Pending pending = new Pending(query, maxItems, priority, new ArrayList<>(), new String[1], Sinks.one());
+            enqueue(pending);
+            return pending.result().asMono();
+        });
+    }
+
+    /**
+     * Adds a listing to the waiting batch. The first listing of a batch schedules its flush
+     * after the batch window; a batch that fills up is sent at once.
+     */
+    private void enqueue(Pending pending) {
+        List<Pending> full = null;
+        boolean first;
+        lock.lock();
+        try {
+            waiting.add(pending);
+            first = waiting.size() == 1;
+            if (waiting.size() >= batchSize) {
+                full = waiting;
+                waiting = new ArrayList<>();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            execute(full).subscribe();
+        } else if (first) {
+            Schedulers.parallel().schedule(this::flush, batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        lock.lock();
+        try {
+            batch = waiting;
+            waiting = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            execute(batch).subscribe();
+        }
+    }
+
+    private Mono<Void> execute(List<Pending> batch) {
+        return round(batch)
+                .expand(remaining -> remaining.isEmpty() ? Mono.empty() : round(remaining))
+                .then();
+    }
+
+    /**
+     * Sends one document for the given listings and completes those that have no more pages;
+     * returns the ones that still do.
+     */
+    private Mono<List<Pending>> round(List<Pending> batch) {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        Map<String, Object> variables = new HashMap<>();
+        GitHubRequestScheduler.Priority priority = GitHubRequestScheduler.Priority.BACKGROUND;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            int first = pending.maxItems() > 0
+                    ? Math.min(perPage, pending.maxItems() - pending.pullRequests().size())
+                    : perPage;
+            declarations.append(i == 0 ? "" : ", ")
+                    .append("$o").append(i).append(": String!, $n").append(i).append(": String!, $s").append(i)
+                    .append(": [PullRequestState!], $c").append(i).append(": String, $f").append(i).append(": Int!");
+            selections.append("  r").append(i).append(": repository(owner: $o").append(i)
+                    .append(", name: $n").append(i).append(") { pullRequests(first: $f").append(i)
+                    .append(", after: $c").append(i).append(", states: $s").append(i)
+                    .append(", orderBy: {field: CREATED_AT, direction: DESC}) { ...prs } }\n");
+            variables.put("o" + i, pending.query().owner());
+            variables.put("n" + i, pending.query().repo());
+            variables.put("s" + i, states(pending.query().state()));
+            variables.put("c" + i, pending.cursor()[0]);
+            variables.put("f" + i, first);
+            if (pending.priority() == GitHubRequestScheduler.Priority.INTERACTIVE) {
+                priority = GitHubRequestScheduler.Priority.INTERACTIVE;
+            }
+        }
+        String document = "query(" + declarations + ") {\n" + selections + "}\n" + CONNECTION_FRAGMENT;
+
+        return webClient.post()
+                .uri(endpoint)
+                .header("Authorization", "Bearer " + gitHubToken)
+                .attribute(GitHubApiMetrics.ENDPOINT_ATTRIBUTE, GRAPHQL_ENDPOINT)
+                .attribute(GitHubRequestScheduler.PRIORITY_ATTRIBUTE, priority)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("query", document, "variables", variables))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isError()) {
+                        return response.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .flatMap(body -> Mono.<JsonNode>error(new RuntimeException(
+                                        "GitHub GraphQL error " + response.statusCode() + ": " + body)));
+                    }
+                    return response.bodyToMono(JsonNode.class);
+                })
+                .map(body -> complete(batch, body))
+                .onErrorResume(e -> {
+                    logger.error("GitHub GraphQL: request for {} listings failed: {}", batch.size(), e.getMessage());
+                    for (Pending pending : batch) {
+                        pending.result().tryEmitError(e);
+                    }
+                    return Mono.just(List.of());
+                });
+    }
+
+    private List<Pending> complete(List<Pending> batch, JsonNode body) {
+        Map<String, String> errors = new HashMap<>();
+        String documentError = null;
+        for (JsonNode error : body.path("errors")) {
+            JsonNode path = error.path("path");
+            if (path.isArray() && !path.isEmpty()) {
+                errors.putIfAbsent(path.get(0).asText(), error.path("message").asText());
+            } else {
+                documentError = error.path("message").asText();
+            }
+        }
+
+        List<Pending> remaining = new ArrayList<>();
+        JsonNode data = body.path("data");
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            JsonNode connection = data.path("r" + i).path("pullRequests");
+            if (connection.isMissingNode()) {
+                String message = errors.getOrDefault("r" + i, documentError != null ? documentError : "no data");
+                pending.result().tryEmitError(new RuntimeException("GitHub GraphQL error for "
+                        + pending.query().owner() + "/" + pending.query().repo() + ": " + message));
+                continue;
+            }
+            for (JsonNode node : connection.path("nodes")) {
+                pending.pullRequests().add(summary(node));
+            }
+            JsonNode pageInfo = connection.path("pageInfo");
+            boolean full = pending.maxItems() > 0 && pending.pullRequests().size() >= pending.maxItems();
+            if (pageInfo.path("hasNextPage").asBoolean() && !full) {
+                pending.cursor()[0] = pageInfo.path("endCursor").asText();
+                remaining.add(pending);
+            } else {
+                logger.debug("GitHub GraphQL: {} PRs for {}", pending.pullRequests().size(), pending.query());
+                pending.result().tryEmitValue(List.copyOf(pending.pullRequests()));
+            }
+        }
+        return remaining;
+    }
+
+    private static PullRequestSummary summary(JsonNode node) {
+        JsonNode author = node.path("author");
+        return new PullRequestSummary(
+                node.path("number").asInt(),
+                node.path("title").asText(null),
+                // REST reports merged pull requests as closed
+                "OPEN".equals(node.path("state").asText()) ? "open" : "closed",
+                author.isObject() ? author.path("login").asText(null) : null,
+                node.path("createdAt").asText(null),
+                node.path("updatedAt").asText(null),
+                node.path("url").asText(null));
+    }
+
+    private static List<String> states(String state) {
+        return switch (state) {
+            case "open" -> List.of("OPEN");
+            case "closed" -> List.of("CLOSED", "MERGED");
+            default -> null;
+        };
+    }
+}
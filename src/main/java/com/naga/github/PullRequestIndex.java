@@ -0,0 +1,161 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of every pull request of the configured repository, kept current by
+ * {@link PullRequestSnapshotSync} and {@link PullRequestWebhookHandler}.
+ * <p>
+ * Records live in a concurrent skip list ordered newest first and are replaced in place,
+ * one pull request at a time, with a compare-and-set that keeps the most recently updated
+ * version; writers never lock out readers or each other. The per-state lists handed to
+ * readers are immutable and rebuilt from the skip list on the first read after a change.
+ */
+@Component
+public class PullRequestIndex {
+
+    /**
+     * Immutable per-state lists built from the skip list at {@code version}.
+     */
+    private record Lists(long version,
+                         List<PullRequestSummary> all,
+                         List<PullRequestSummary> open,
+                         List<PullRequestSummary> closed) {
+    }
+
+    private final ConcurrentNavigableMap<Integer, PullRequestSummary> byNumber =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<String> highWaterMark = new AtomicReference<>();
+    private volatile Lists lists = new Lists(0, List.of(), List.of(), List.of());
+    private volatile boolean ready;
+
+    public PullRequestIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("github.pr.index.size", this, PullRequestIndex::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * True once the index holds a snapshot or a completed sync and can answer reads.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        return byNumber.size();
+    }
+
+    /**
+     * Pull requests in the given state ({@code open}, {@code closed} or {@code all}), newest first.
+     */
+    public List<PullRequestSummary> list(String state) {
+        Lists current = lists();
+        return switch (state) {
+            case "open" -> current.open();
+            case "closed" -> current.closed();
+            default -> current.all();
+        };
+    }
+
+    /**
+     * Incremented by every change to the index.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public PullRequestSummary get(int number) {
+        return byNumber.get(number);
+    }
+
+    /**
+     * The latest {@code updated_at} seen, or null when the index is empty.
+     */
+    public String highWaterMark() {
+        return highWaterMark.get();
+    }
+
+    /**
+     * Applies records that are at least as recent as the ones held and returns those
+     * that changed the index.
+     */
+    public List<PullRequestSummary> apply(Collection<PullRequestSummary> pullRequests) {
+        List<PullRequestSummary> changed = new ArrayList<>();
+        for (PullRequestSummary pullRequest : pullRequests) {
+            if (apply(pullRequest)) {
+                changed.add(pullRequest);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Applies one record unless the index already holds it or a more recent version.
+     */
+    public boolean apply(PullRequestSummary pullRequest) {
+        Integer number = pullRequest.number();
+        while (true) {
+            PullRequestSummary existing = byNumber.get(number);
+            if (existing == null) {
+                if (byNumber.putIfAbsent(number, pullRequest) == null) {
+                    break;
+                }
+            } else if (pullRequest.equals(existing) || isOlder(pullRequest, existing)) {
+                return false;
+            } else if (byNumber.replace(number, existing, pullRequest)) {
+                break;
+            }
+        }
+        String updatedAt = pullRequest.updatedAt();
+        if (updatedAt != null) {
+            highWaterMark.accumulateAndGet(updatedAt,
+                    (current, candidate) -> current == null || candidate.compareTo(current) > 0 ? candidate : current);
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    private static boolean isOlder(PullRequestSummary candidate, PullRequestSummary existing) {
+        return candidate.updatedAt() != null && existing.updatedAt() != null
+                && candidate.updatedAt().compareTo(existing.updatedAt()) < 0;
+    }
+
+    private Lists lists() {
+        Lists current = lists;
+        long expected = version.get();
+        if (current.version() == expected) {
+            return current;
+        }
+        // Concurrent readers may rebuild the same version; any of the results is correct.
+        List<PullRequestSummary> all = new ArrayList<>(byNumber.size());
+        List<PullRequestSummary> open = new ArrayList<>();
+        List<PullRequestSummary> closed = new ArrayList<>();
+        for (PullRequestSummary pullRequest : byNumber.values()) {
+            all.add(pullRequest);
+            if ("open".equals(pullRequest.state())) {
+                open.add(pullRequest);
+            } else if ("closed".equals(pullRequest.state())) {
+                closed.add(pullRequest);
+            }
+        }
+        Lists rebuilt = new Lists(expected, List.copyOf(all), List.copyOf(open), List.copyOf(closed));
+        lists = rebuilt;
+        return rebuilt;
+    }
+}
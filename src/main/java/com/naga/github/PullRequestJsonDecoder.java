@@ -0,0 +1,160 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for GitHub's pull request list response.
+ * Feeds response buffers into Jackson's non-blocking parser as they arrive and projects
+ * each array element straight into a {@link PullRequestSummary}. Nested objects other than
+ * {@code user} (head, base, repo, _links, ...) are tokenized but never materialized.
+ */
+final class PullRequestJsonDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+
+    private int depth;
+    private String field;
+    private boolean inUser;
+
+    private int number;
+    private String title;
+    private String state;
+    private String author;
+    private String createdAt;
+    private String updatedAt;
+    private String url;
+
+    private PullRequestJsonDecoder() {
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Decodes a pull request list body. Each buffer is released once it has been parsed.
+     */
+    static Flux<PullRequestSummary> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            PullRequestJsonDecoder decoder = new PullRequestJsonDecoder();
+            return body.concatMapIterable(decoder::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    private List<PullRequestSummary> feed(DataBuffer buffer) {
+        List<PullRequestSummary> decoded = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                feeder.feedInput(byteBuffer);
+                parseAvailable(decoded);
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Invalid pull request JSON: " + e.getMessage(), e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return decoded;
+    }
+
+    private List<PullRequestSummary> finish() {
+        List<PullRequestSummary> decoded = new ArrayList<>();
+        feeder.endOfInput();
+        try {
+            parseAvailable(decoded);
+            parser.close();
+        } catch (IOException e) {
+            throw new DecodingException("Invalid pull request JSON: " + e.getMessage(), e);
+        }
+        if (depth != 0) {
+            throw new DecodingException("Truncated pull request JSON");
+        }
+        return decoded;
+    }
+
+    private void parseAvailable(List<PullRequestSummary> decoded) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_ARRAY, START_OBJECT -> {
+                    if (depth == 0 && token != JsonToken.START_ARRAY) {
+                        throw new DecodingException("Expected a JSON array of pull requests");
+                    }
+                    depth++;
+                    if (depth == 2) {
+                        reset();
+                    } else if (depth == 3 && "user".equals(field) && token == JsonToken.START_OBJECT) {
+                        inUser = true;
+                    }
+                }
+                case END_ARRAY, END_OBJECT -> {
+                    depth--;
+                    if (depth == 2) {
+                        inUser = false;
+                    } else if (depth == 1) {
+                        decoded.add(new PullRequestSummary(number, title, state, author, createdAt, updatedAt, url));
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 2 || (depth == 3 && inUser)) {
+                        field = parser.currentName();
+                    }
+                }
+                default -> {
+                    if (depth == 2) {
+                        readField(token);
+                    } else if (depth == 3 && inUser && "login".equals(field)) {
+                        author = parser.getText();
+                    }
+                }
+            }
+        }
+    }
+
+    private void readField(JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        switch (field) {
+            case "number" -> number = parser.getIntValue();
+            case "title" -> title = parser.getText();
+            case "state" -> state = parser.getText();
+            case "created_at" -> createdAt = parser.getText();
+            case "updated_at" -> updatedAt = parser.getText();
+            case "html_url" -> url = parser.getText();
+            default -> {
+            }
+        }
+    }
+
+    private void reset() {
+        field = null;
+        inUser = false;
+        number = 0;
+        title = null;
+        state = null;
+        author = null;
+        createdAt = null;
+        updatedAt = null;
+        url = null;
+    }
+}
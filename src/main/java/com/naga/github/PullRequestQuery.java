@@ -0,0 +1,8 @@
+package com.naga.github;
+
+/**
+ * Identifies one pull request listing on GitHub.
+ * Used as the key for cached and coalesced upstream calls.
+ */
+public record PullRequestQuery(String owner, String repo, String state) {
+}
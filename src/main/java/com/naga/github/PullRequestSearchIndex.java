@@ -0,0 +1,435 @@
+package com.naga.github;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable search structures over a list of pull requests.
+ * <p>
+ * Documents are numbered in {@code created_at} order, so the date-sorted {@code long[]} of
+ * creation times maps a date range to a contiguous range of document ids with two binary
+ * searches, and larger ids are always newer. Title tokens and authors map to sorted
+ * {@code int[]} posting lists. Text queries score each document by the summed inverse
+ * document frequency of the query tokens its title contains, ties going to the newer one;
+ * queries without text return the newest matches. Text queries merge the posting lists of
+ * their tokens from the newest id down into a bounded heap of packed {@code (score, id)}
+ * longs and stop as soon as no older document could enter it, so a query for common words
+ * touches little more than {@code limit} postings and allocates nothing proportional to the
+ * index. The match count is then a lower bound.
+ */
+final class PullRequestSearchIndex {
+
+    static final PullRequestSearchIndex EMPTY = build(List.of());
+
+    private static final int INDEX_BITS = 24;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    private static final byte STATE_OTHER = 0;
+    private static final byte STATE_OPEN = 1;
+    private static final byte STATE_CLOSED = 2;
+
+    private final PullRequestSummary[] documents;
+    private final long[] createdAt;
+    private final byte[] states;
+    private final Map<String, int[]> titlePostings;
+    private final Map<String, int[]> authorPostings;
+
+    /**
+     * Search criteria; null fields do not filter.
+     */
+    record Query(String text, String author, String state, Long createdFrom, Long createdTo, int limit) {
+    }
+
+    private PullRequestSearchIndex(PullRequestSummary[] documents, long[] createdAt, byte[] states,
+                                   Map<String, int[]> titlePostings, Map<String, int[]> authorPostings) {
+        this.documents = documents;
+        this.createdAt = createdAt;
+        this.states = states;
+        this.titlePostings = titlePostings;
+        this.authorPostings = authorPostings;
+    }
+
+    static PullRequestSearchIndex build(List<PullRequestSummary> pullRequests) {
+        int size = pullRequests.size();
+        if (size > INDEX_MASK) {
+            throw new IllegalArgumentException("Too many pull requests to index: " + size);
+        }
+        // Sort by creation time as packed (seconds, list position) primitives
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = epochSeconds(pullRequests.get(i).createdAt()) << INDEX_BITS | i;
+        }
+        Arrays.sort(order);
+
+        PullRequestSummary[] documents = new PullRequestSummary[size];
+        long[] createdAt = new long[size];
+        byte[] states = new byte[size];
+        Map<String, IntList> titles = new HashMap<>();
+        Map<String, IntList> authors = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            PullRequestSummary pullRequest = pullRequests.get((int) (order[id] & INDEX_MASK));
+            documents[id] = pullRequest;
+            createdAt[id] = order[id] >>> INDEX_BITS;
+            states[id] = state(pullRequest.state());
+            for (String token : tokenize(pullRequest.title())) {
+                IntList postings = titles.computeIfAbsent(token, key -> new IntList());
+                // A token repeated in one title is posted once
+                if (postings.size == 0 || postings.values[postings.size - 1] != id) {
+                    postings.add(id);
+                }
+            }
+            if (pullRequest.author() != null) {
+                authors.computeIfAbsent(pullRequest.author().toLowerCase(Locale.ROOT), key -> new IntList()).add(id);
+            }
+        }
+        return new PullRequestSearchIndex(documents, createdAt, states, compact(titles), compact(authors));
+    }
+
+    int size() {
+        return documents.length;
+    }
+
+    /**
+     * Approximate heap held by the search structures, excluding the pull requests themselves.
+     */
+    long estimatedBytes() {
+        long bytes = 16L + documents.length * 4L + createdAt.length * 8L + states.length;
+        for (Map<String, int[]> postings : List.of(titlePostings, authorPostings)) {
+            for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+                // HashMap node, String with its byte[] and the int[] with their headers
+                bytes += 32 + 24 + 16 + entry.getKey().length() + 16 + entry.getValue().length * 4L;
+            }
+        }
+        return bytes;
+    }
+
+    PullRequestSearchResults search(Query query) {
+        int limit = Math.max(1, query.limit());
+        int from = query.createdFrom() == null ? 0 : lowerBound(query.createdFrom());
+        int to = query.createdTo() == null ? documents.length : upperBound(query.createdTo());
+        byte state = query.state() == null || query.state().equals("all") ? -1 : state(query.state());
+        int[] authorIds = null;
+        if (query.author() != null && !query.author().isBlank()) {
+            authorIds = authorPostings.get(query.author().trim().toLowerCase(Locale.ROOT));
+            if (authorIds == null) {
+                return new PullRequestSearchResults(0, true, List.of());
+            }
+        }
+        if (from >= to) {
+            return new PullRequestSearchResults(0, true, List.of());
+        }
+
+        List<String> tokens = query.text() == null ? List.of() : tokenize(query.text());
+        return tokens.isEmpty()
+                ? newest(authorIds, from, to, state, limit)
+                : ranked(tokens, authorIds, from, to, state, limit);
+    }
+
+    /**
+     * Filter-only query: walks candidates from the newest, within the id range.
+     */
+    private PullRequestSearchResults newest(int[] authorIds, int from, int to, byte state, int limit) {
+        List<PullRequestSummary> hits = new ArrayList<>(Math.min(limit, to - from));
+        int matches = 0;
+        if (authorIds == null && state < 0) {
+            for (int id = to - 1; id >= from && hits.size() < limit; id--) {
+                hits.add(documents[id]);
+            }
+            return new PullRequestSearchResults(to - from, true, hits);
+        }
+        if (authorIds == null) {
+            for (int id = to - 1; id >= from; id--) {
+                if (state < 0 || states[id] == state) {
+                    if (matches++ < limit) {
+                        hits.add(documents[id]);
+                    }
+                }
+            }
+        } else {
+            int end = Arrays.binarySearch(authorIds, to);
+            end = end < 0 ? -end - 1 : end;
+            for (int i = end - 1; i >= 0 && authorIds[i] >= from; i--) {
+                int id = authorIds[i];
+                if (state < 0 || states[id] == state) {
+                    if (matches++ < limit) {
+                        hits.add(documents[id]);
+                    }
+                }
+            }
+        }
+        return new PullRequestSearchResults(matches, true, hits);
+    }
+
+    private PullRequestSearchResults ranked(List<String> tokens, int[] authorIds, int from, int to, byte state,
+                                            int limit) {
+        // One cursor per distinct query token that occurs at all, starting at the newest id in range
+        List<int[]> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens.stream().distinct().toList()) {
+            int[] postings = titlePostings.get(token);
+            if (postings != null) {
+                lists.add(postings);
+            }
+        }
+        int count = lists.size();
+        int[][] postings = lists.toArray(new int[0][]);
+        float[] idf = new float[count];
+        int[] cursors = new int[count];
+        float maxScore = 0f;
+        for (int t = 0; t < count; t++) {
+            idf[t] = (float) Math.log(1 + (double) documents.length / postings[t].length);
+            maxScore += idf[t];
+            int end = Arrays.binarySearch(postings[t], to);
+            cursors[t] = (end < 0 ? -end - 1 : end) - 1;
+        }
+
+        long[] heap = new long[Math.min(limit, to - from)];
+        int heapSize = 0;
+        int matches = 0;
+        boolean exact = true;
+
+        if (authorIds != null && authorIds.length < totalLength(postings)) {
+            // The author's few pull requests are cheaper to check against each token's postings
+            int end = Arrays.binarySearch(authorIds, to);
+            for (int i = (end < 0 ? -end - 1 : end) - 1; i >= 0 && authorIds[i] >= from; i--) {
+                int id = authorIds[i];
+                if (heapSize == heap.length && Float.intBitsToFloat((int) (heap[0] >>> 32)) >= maxScore) {
+                    exact = false;
+                    break;
+                }
+                float score = 0f;
+                for (int t = 0; t < count; t++) {
+                    if (Arrays.binarySearch(postings[t], id) >= 0) {
+                        score += idf[t];
+                    }
+                }
+                if (score == 0f || (state >= 0 && states[id] != state)) {
+                    continue;
+                }
+                matches++;
+                heapSize = offer(heap, heapSize, ((long) Float.floatToIntBits(score) << 32) | id);
+            }
+            return results(heap, heapSize, matches, exact);
+        }
+
+        // Merge the sorted postings from the newest id down, summing the weights of the tokens
+        // each id appears under, into a min-heap of the best hits keyed by (score, id). Once the
+        // heap is full of hits no remaining (older) id could outscore, the walk stops.
+        while (true) {
+            int id = -1;
+            float bound = 0f;
+            for (int t = 0; t < count; t++) {
+                if (cursors[t] >= 0 && postings[t][cursors[t]] >= from) {
+                    id = Math.max(id, postings[t][cursors[t]]);
+                    bound += idf[t];
+                }
+            }
+            if (id < 0) {
+                break;
+            }
+            if (heapSize == heap.length && heapSize > 0 && Float.intBitsToFloat((int) (heap[0] >>> 32)) >= bound) {
+                exact = false;
+                break;
+            }
+            float score = 0f;
+            for (int t = 0; t < count; t++) {
+                if (cursors[t] >= 0 && postings[t][cursors[t]] == id) {
+                    score += idf[t];
+                    cursors[t]--;
+                }
+            }
+            if ((state >= 0 && states[id] != state) || (authorIds != null && Arrays.binarySearch(authorIds, id) < 0)) {
+                continue;
+            }
+            matches++;
+            heapSize = offer(heap, heapSize, ((long) Float.floatToIntBits(score) << 32) | id);
+        }
+        return results(heap, heapSize, matches, exact);
+    }
+
+    private PullRequestSearchResults results(long[] heap, int heapSize, int matches, boolean exact) {
+        Arrays.sort(heap, 0, heapSize);
+        List<PullRequestSummary> hits = new ArrayList<>(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            hits.add(documents[(int) heap[i]]);
+        }
+        return new PullRequestSearchResults(matches, exact, hits);
+    }
+
+    private static long totalLength(int[][] postings) {
+        long length = 0;
+        for (int[] list : postings) {
+            length += list.length;
+        }
+        return length;
+    }
+
+    /**
+     * Adds a key to the bounded min-heap, replacing the minimum when full; returns the new size.
+     */
+    private static int offer(long[] heap, int heapSize, long key) {
+        if (heapSize < heap.length) {
+            heap[heapSize] = key;
+            siftUp(heap, heapSize);
+            return heapSize + 1;
+        }
+        if (key > heap[0]) {
+            heap[0] = key;
+            siftDown(heap, heapSize);
+        }
+        return heapSize;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    /**
+     * First id created at or after the instant.
+     */
+    private int lowerBound(long epochSeconds) {
+        int low = 0;
+        int high = createdAt.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (createdAt[mid] < epochSeconds) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First id created after the instant.
+     */
+    private int upperBound(long epochSeconds) {
+        return epochSeconds >= Long.MAX_VALUE >>> INDEX_BITS ? createdAt.length : lowerBound(epochSeconds + 1);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= 2) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Seconds since the epoch of a {@code created_at} timestamp; missing, unparsable and
+     * pre-1970 values count as 0.
+     */
+    static long epochSeconds(String timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        // GitHub's fixed yyyy-MM-ddTHH:mm:ssZ, without the cost of Instant.parse
+        if (timestamp.length() == 20 && timestamp.charAt(4) == '-' && timestamp.charAt(7) == '-'
+                && timestamp.charAt(10) == 'T' && timestamp.charAt(13) == ':' && timestamp.charAt(16) == ':'
+                && timestamp.charAt(19) == 'Z') {
+            int year = digits(timestamp, 0, 4);
+            int month = digits(timestamp, 5, 2);
+            int day = digits(timestamp, 8, 2);
+            int hour = digits(timestamp, 11, 2);
+            int minute = digits(timestamp, 14, 2);
+            int second = digits(timestamp, 17, 2);
+            if (year >= 1970 && month >= 1 && month <= 12 && day >= 1 && day <= 31
+                    && hour < 24 && minute < 60 && second < 60) {
+                return LocalDate.of(year, month, 1).plusDays(day - 1).toEpochDay() * 86_400L
+                        + hour * 3_600L + minute * 60L + second;
+            }
+        }
+        try {
+            return Math.max(0, Instant.parse(timestamp).getEpochSecond());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private static int digits(String text, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static byte state(String state) {
+        if ("open".equals(state)) {
+            return STATE_OPEN;
+        }
+        return "closed".equals(state) ? STATE_CLOSED : STATE_OTHER;
+    }
+
+    private static Map<String, int[]> compact(Map<String, IntList> lists) {
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, IntList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), Arrays.copyOf(entry.getValue().values, entry.getValue().size));
+        }
+        return postings;
+    }
+
+    /**
+     * Growable int array used while building posting lists.
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.naga.github;
+
+import java.util.List;
+
+/**
+ * The best matches of a pull request search, best first, and how many pull requests matched.
+ * {@code totalExact} is false when the search stopped once the best matches were certain, in
+ * which case {@code totalMatches} is a lower bound.
+ */
+public record PullRequestSearchResults(int totalMatches, boolean totalExact, List<PullRequestSummary> pullRequests) {
+}
@@ -0,0 +1,169 @@
+package com.naga.github;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code searchPullRequests} MCP tool: filtered, ranked search over the configured
+ * repository's pull requests, so agents get a short answer instead of the full list.
+ * <p>
+ * Searches every pull request in the {@link PullRequestIndex} when it is loaded, the cached
+ * {@code getAllPullRequests} listing otherwise, through a {@link PullRequestSearchIndex}
+ * built from it. The search index is rebuilt on the first search after a change: one that
+ * bumps the index's version, or a refetch that replaces the cached list.
+ */
+@Service
+public class PullRequestSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestSearchService.class);
+
+    /**
+     * A search index and what it was built from: the {@link PullRequestIndex} version, or
+     * {@code UNVERSIONED} and the cached list.
+     */
+    private record Built(long version, List<PullRequestSummary> source, PullRequestSearchIndex index) {
+    }
+
+    private static final long UNVERSIONED = -1;
+
+    private final GitHubToolsService gitHubToolsService;
+    private final PullRequestIndex pullRequestIndex;
+    private final String owner;
+    private final String repo;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile Built built = new Built(Long.MIN_VALUE, null, PullRequestSearchIndex.EMPTY);
+
+    public PullRequestSearchService(GitHubToolsService gitHubToolsService,
+                                    PullRequestIndex pullRequestIndex,
+                                    @Value("${github.owner}") String owner,
+                                    @Value("${github.repo}") String repo,
+                                    @Value("${github.search.default-limit:20}") int defaultLimit,
+                                    @Value("${github.search.max-limit:100}") int maxLimit) {
+        this.gitHubToolsService = gitHubToolsService;
+        this.pullRequestIndex = pullRequestIndex;
+        this.owner = owner;
+        this.repo = repo;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Tool(
+            name = "searchPullRequests",
+            description = "Searches the repository's pull requests and returns only the best matches. " +
+                    "Filters by title words, author, state and creation date; results matching more of the " +
+                    "query words come first, then newer ones. Returns the total number of matches and the " +
+                    "matching PRs (number, title, state, author, dates, url)."
+    )
+    public Mono<PullRequestSearchResults> searchPullRequests(
+            @ToolParam(description = "Words to look for in PR titles, e.g. 'retry timeout'", required = false)
+            String query,
+            @ToolParam(description = "GitHub login of the PR author", required = false)
+            String author,
+            @ToolParam(description = "PR state: 'open', 'closed', or 'all'. Defaults to 'all'", required = false)
+            String state,
+            @ToolParam(description = "Only PRs created at or after this: an ISO date ('2025-01-31'), an ISO " +
+                    "timestamp, or a relative age like '7d', '24h' or '2w'", required = false)
+            String createdSince,
+            @ToolParam(description = "Only PRs created at or before this, in the same formats", required = false)
+            String createdUntil,
+            @ToolParam(description = "Maximum number of PRs to return. Defaults to 20", required = false)
+            Integer limit) {
+
+        PullRequestSearchIndex.Query search = new PullRequestSearchIndex.Query(
+                query,
+                author,
+                state == null || state.isBlank() ? "all" : state.toLowerCase(),
+                createdSince == null || createdSince.isBlank() ? null : parseInstant(createdSince, false),
+                createdUntil == null || createdUntil.isBlank() ? null : parseInstant(createdUntil, true),
+                Math.min(limit == null || limit <= 0 ? defaultLimit : limit, maxLimit));
+
+        return searchIndex()
+                .map(index -> {
+                    long start = System.nanoTime();
+                    PullRequestSearchResults results = index.search(search);
+                    logger.debug("searchPullRequests {} matched {} of {} PRs in {} us", search,
+                            results.totalMatches(), index.size(), (System.nanoTime() - start) / 1_000);
+                    return results;
+                });
+    }
+
+    private Mono<PullRequestSearchIndex> searchIndex() {
+        if (pullRequestIndex.isReady()) {
+            // Read before the list, so a list that is already newer only causes one extra rebuild
+            long version = pullRequestIndex.version();
+            return Mono.fromSupplier(() -> indexFor(version, null));
+        }
+        return gitHubToolsService.pullRequests(owner, repo, "all")
+                .map(pullRequests -> indexFor(UNVERSIONED, pullRequests));
+    }
+
+    private PullRequestSearchIndex indexFor(long version, List<PullRequestSummary> cached) {
+        Built current = built;
+        if (builtFrom(current, version, cached)) {
+            return current.index();
+        }
+        buildLock.lock();
+        try {
+            current = built;
+            if (!builtFrom(current, version, cached)) {
+                long start = System.nanoTime();
+                List<PullRequestSummary> pullRequests = version == UNVERSIONED ? cached : pullRequestIndex.list("all");
+                current = new Built(version, cached, PullRequestSearchIndex.build(pullRequests));
+                built = current;
+                logger.info("Built PR search index over {} PRs in {} ms (~{} KB)", pullRequests.size(),
+                        (System.nanoTime() - start) / 1_000_000, current.index().estimatedBytes() / 1024);
+            }
+            return current.index();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private static boolean builtFrom(Built built, long version, List<PullRequestSummary> cached) {
+        return built.version() == version && (version != UNVERSIONED || built.source() == cached);
+    }
+
+    /**
+     * Epoch seconds of an ISO date, ISO timestamp or relative age ({@code 7d}, {@code 24h}, {@code 2w}).
+     * A date bounding the end of a range covers that whole day.
+     */
+    static long parseInstant(String value, boolean endOfRange) {
+        String text = value.trim();
+        char unit = Character.toLowerCase(text.charAt(text.length() - 1));
+        if (text.length() > 1 && "hdw".indexOf(unit) >= 0 && text.substring(0, text.length() - 1).chars().allMatch(Character::isDigit)) {
+            long amount = Long.parseLong(text.substring(0, text.length() - 1));
+            Duration age = switch (unit) {
+                case 'h' -> Duration.ofHours(amount);
+                case 'd' -> Duration.ofDays(amount);
+                default -> Duration.ofDays(7 * amount);
+            };
+            return Instant.now().minus(age).getEpochSecond();
+        }
+        try {
+            if (text.length() == 10) {
+                LocalDate date = LocalDate.parse(text);
+                return (endOfRange ? date.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC) - 1
+                        : date.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+            }
+            return Instant.parse(text).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unrecognized date '" + value + "': use 2025-01-31, an ISO "
+                    + "timestamp, or an age like 7d");
+        }
+    }
+}
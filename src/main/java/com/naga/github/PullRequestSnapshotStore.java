@@ -0,0 +1,362 @@
+package com.naga.github;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only on-disk store of pull request records, one file per repository.
+ * <p>
+ * Each record is framed as {@code [magic][payload length][CRC32 of payload][payload]},
+ * all big-endian ints, and a later record for the same pull request number supersedes
+ * earlier ones. Files are read through a memory map. Reading stops at the first record
+ * whose frame is incomplete or whose checksum does not match; that tail (a write cut
+ * short by a crash) is truncated away before anything new is appended. Appends are
+ * forced to disk before they return. A file is rewritten compacted, through a temporary
+ * file and an atomic rename, once it holds many superseded records; the store counts the
+ * records of each file, whoever appended them, so the caller can tell when.
+ * <p>
+ * Beside each snapshot a small properties file records how far the sync has got, written
+ * the same way through a temporary file and an atomic rename.
+ */
+@Component
+public class PullRequestSnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestSnapshotStore.class);
+
+    static final int MAGIC = 0x50525331; // "PRS1"
+    private static final int HEADER_BYTES = 12;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    private static final int NULL_LENGTH = 0xFFFF;
+
+    /**
+     * The records loaded from a snapshot file. {@code pullRequests} holds the latest record
+     * per pull request; {@code records} counts every valid record read, superseded or not.
+     */
+    public record Snapshot(List<PullRequestSummary> pullRequests, int records, long discardedBytes) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), 0, 0);
+    }
+
+    /**
+     * Progress of the sync of a repository. {@code loadedPages} counts the pages of the first
+     * full load already appended to the snapshot, {@code loadComplete} is set once it has
+     * them all, and {@code watermark} is the newest {@code updated_at} the sync has polled
+     * through. Records appended from webhooks never move the watermark.
+     */
+    public record SyncState(String watermark, int loadedPages, boolean loadComplete) {
+        static final SyncState NONE = new SyncState(null, 0, false);
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<Path, Integer> storedRecords = new HashMap<>();
+
+    public PullRequestSnapshotStore(@Value("${github.snapshot.enabled:true}") boolean enabled,
+                                    @Value("${github.snapshot.dir:data/snapshots}") String directory) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the snapshot of a repository, discarding a partially written tail.
+     */
+    public Snapshot load(String owner, String repo) {
+        if (!enabled) {
+            return Snapshot.EMPTY;
+        }
+        Path file = file(owner, repo);
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) {
+                storedRecords.put(file, 0);
+                return Snapshot.EMPTY;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Map<Integer, PullRequestSummary> latest = new LinkedHashMap<>();
+            int records = 0;
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int start = buffer.position();
+                int magic = buffer.getInt();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (magic != MAGIC || length < 0 || length > MAX_PAYLOAD_BYTES || buffer.remaining() < length) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    buffer.position(start);
+                    break;
+                }
+                PullRequestSummary pullRequest = decode(payload);
+                latest.put(pullRequest.number(), pullRequest);
+                records++;
+                buffer.position(start + HEADER_BYTES + length);
+            }
+
+            long valid = buffer.position();
+            long discarded = size - valid;
+            if (discarded > 0) {
+                logger.warn("Discarding {} bytes of incomplete or corrupt records at the end of {}", discarded, file);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            storedRecords.put(file, records);
+            return new Snapshot(List.copyOf(latest.values()), records, discarded);
+        } catch (NoSuchFileException e) {
+            return Snapshot.EMPTY;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read PR snapshot " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends records to a repository's snapshot and forces them to disk.
+     */
+    public void append(String owner, String repo, Collection<PullRequestSummary> pullRequests) {
+        if (!enabled || pullRequests.isEmpty()) {
+            return;
+        }
+        Path file = file(owner, repo);
+        ByteBuffer records = encode(pullRequests);
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+                channel.force(false);
+            }
+            storedRecords.merge(file, pullRequests.size(), Integer::sum);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to PR snapshot " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records in a repository's snapshot, superseded or not, as of the last load, appends and rewrites.
+     */
+    public int storedRecords(String owner, String repo) {
+        lock.lock();
+        try {
+            return storedRecords.getOrDefault(file(owner, repo), 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces a repository's snapshot with exactly the supplied records. The supplier is
+     * called with the store locked, so a record appended concurrently either is in what it
+     * returns or is appended after the rewrite; it is never overwritten.
+     */
+    public void rewrite(String owner, String repo, Supplier<? extends Collection<PullRequestSummary>> pullRequests) {
+        if (!enabled) {
+            return;
+        }
+        Path file = file(owner, repo);
+        lock.lock();
+        try {
+            Collection<PullRequestSummary> current = pullRequests.get();
+            replace(file, encode(current));
+            storedRecords.put(file, current.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rewrite PR snapshot " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the sync progress saved beside a repository's snapshot.
+     */
+    public SyncState loadSyncState(String owner, String repo) {
+        if (!enabled) {
+            return SyncState.NONE;
+        }
+        Path file = syncStateFile(owner, repo);
+        Properties properties = new Properties();
+        lock.lock();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            return SyncState.NONE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read PR sync state " + file, e);
+        } finally {
+            lock.unlock();
+        }
+        return new SyncState(properties.getProperty("watermark"),
+                Integer.parseInt(properties.getProperty("loaded-pages", "0")),
+                Boolean.parseBoolean(properties.getProperty("load-complete")));
+    }
+
+    /**
+     * Replaces the sync progress saved beside a repository's snapshot and forces it to disk.
+     */
+    public void saveSyncState(String owner, String repo, SyncState state) {
+        if (!enabled) {
+            return;
+        }
+        Properties properties = new Properties();
+        if (state.watermark() != null) {
+            properties.setProperty("watermark", state.watermark());
+        }
+        properties.setProperty("loaded-pages", Integer.toString(state.loadedPages()));
+        properties.setProperty("load-complete", Boolean.toString(state.loadComplete()));
+        StringWriter text = new StringWriter();
+        try {
+            properties.store(text, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Path file = syncStateFile(owner, repo);
+        lock.lock();
+        try {
+            replace(file, ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save PR sync state " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replace(Path file, ByteBuffer contents) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path syncStateFile(String owner, String repo) {
+        return directory.resolve(sanitize(owner) + "__" + sanitize(repo) + ".sync");
+    }
+
+    private Path file(String owner, String repo) {
+        return directory.resolve(sanitize(owner) + "__" + sanitize(repo) + ".prs");
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    static ByteBuffer encode(Collection<PullRequestSummary> pullRequests) {
+        List<byte[][]> encoded = new ArrayList<>(pullRequests.size());
+        int total = 0;
+        for (PullRequestSummary pullRequest : pullRequests) {
+            byte[][] fields = {
+                    utf8(pullRequest.title()),
+                    utf8(pullRequest.state()),
+                    utf8(pullRequest.author()),
+                    utf8(pullRequest.createdAt()),
+                    utf8(pullRequest.updatedAt()),
+                    utf8(pullRequest.url())
+            };
+            encoded.add(fields);
+            total += HEADER_BYTES + payloadLength(fields);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        int index = 0;
+        for (PullRequestSummary pullRequest : pullRequests) {
+            byte[][] fields = encoded.get(index++);
+            int length = payloadLength(fields);
+            int payloadStart = buffer.position() + HEADER_BYTES;
+            buffer.putInt(MAGIC).putInt(length).putInt(0);
+            buffer.putInt(pullRequest.number());
+            for (byte[] field : fields) {
+                if (field == null) {
+                    buffer.putShort((short) NULL_LENGTH);
+                } else {
+                    buffer.putShort((short) field.length).put(field);
+                }
+            }
+            crc.reset();
+            crc.update(buffer.slice(payloadStart, length));
+            buffer.putInt(payloadStart - 4, (int) crc.getValue());
+        }
+        return buffer.flip();
+    }
+
+    private static int payloadLength(byte[][] fields) {
+        int length = Integer.BYTES;
+        for (byte[] field : fields) {
+            length += Short.BYTES + (field == null ? 0 : field.length);
+        }
+        return length;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("PR field too long for the snapshot format: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static PullRequestSummary decode(ByteBuffer payload) {
+        int number = payload.getInt();
+        return new PullRequestSummary(number, string(payload), string(payload), string(payload),
+                string(payload), string(payload), string(payload));
+    }
+
+    private static String string(ByteBuffer payload) {
+        int length = Short.toUnsignedInt(payload.getShort());
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
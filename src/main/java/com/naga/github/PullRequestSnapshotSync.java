@@ -0,0 +1,189 @@
+package com.naga.github;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps {@link PullRequestIndex} current for the configured repository.
+ * <p>
+ * On startup the index is filled from the on-disk snapshot, so reads are served right
+ * away instead of after a full GitHub fetch. Without a complete snapshot the full history is
+ * loaded first, several pages at a time; each page is appended to the snapshot as it arrives
+ * and the page count saved with it, so a restart resumes the load instead of starting over.
+ * Then, immediately and every
+ * {@code github.snapshot.sync-interval-seconds}, only the pull requests updated since the
+ * previous sync are fetched (at background priority), applied to the index and appended
+ * to the snapshot. The snapshot is compacted when it holds twice as many records
+ * as the index.
+ * <p>
+ * With webhooks configured this is the low-priority reconcile that repairs missed
+ * deliveries. It tracks how far it has polled separately from the index's newest record,
+ * and saves that watermark in the sync state rather than deriving it from the snapshot
+ * after a restart, since a webhook for one pull request must not move the poll past an
+ * update to another whose delivery was lost. Compaction rewrites the snapshot with the
+ * store locked, so a webhook record appended meanwhile is not lost.
+ */
+@Component
+public class PullRequestSnapshotSync implements SmartInitializingSingleton, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestSnapshotSync.class);
+
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 1_000;
+
+    private final PullRequestSnapshotStore store;
+    private final PullRequestIndex index;
+    private final GitHubToolsService gitHubToolsService;
+    private final String owner;
+    private final String repo;
+    private final long syncIntervalSeconds;
+
+    private Disposable ticker;
+    // Only touched from the sequential sync pipeline.
+    private String etag;
+    private PullRequestSnapshotStore.SyncState state;
+
+    public PullRequestSnapshotSync(PullRequestSnapshotStore store,
+                                   PullRequestIndex index,
+                                   GitHubToolsService gitHubToolsService,
+                                   @Value("${github.owner}") String owner,
+                                   @Value("${github.repo}") String repo,
+                                   @Value("${github.snapshot.sync-interval-seconds:300}") long syncIntervalSeconds) {
+        this.store = store;
+        this.index = index;
+        this.gitHubToolsService = gitHubToolsService;
+        this.owner = owner;
+        this.repo = repo;
+        this.syncIntervalSeconds = syncIntervalSeconds;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!store.isEnabled()) {
+            logger.info("PR snapshot disabled, getAllPullRequests reads through the cache");
+            return;
+        }
+        long start = System.nanoTime();
+        PullRequestSnapshotStore.Snapshot snapshot = store.load(owner, repo);
+        state = store.loadSyncState(owner, repo);
+        index.apply(snapshot.pullRequests());
+        if (state.loadComplete()) {
+            index.markReady();
+        }
+        logger.info("Loaded {} PRs ({} records) of {}/{} from snapshot in {} ms, full load {}",
+                index.size(), snapshot.records(), owner, repo, (System.nanoTime() - start) / 1_000_000,
+                state.loadComplete() ? "complete" : "at page " + state.loadedPages());
+
+        Flux<Long> ticks = syncIntervalSeconds > 0
+                ? Flux.interval(Duration.ZERO, Duration.ofSeconds(syncIntervalSeconds)).onBackpressureDrop()
+                : Flux.just(0L);
+        ticker = ticks
+                .concatMap(tick -> (state.loadComplete() ? sync() : load())
+                        .onErrorResume(e -> {
+                            logger.warn("PR sync of {}/{} failed: {}", owner, repo, e.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .subscribe();
+    }
+
+    /**
+     * Loads the full history, resuming after the pages a previous run already stored. Each
+     * page is applied, appended and recorded in the sync state as it arrives; the index is
+     * ready once the last page is in. Emits the number of records that changed.
+     */
+    Mono<Integer> load() {
+        int fromPage = state.loadedPages() + 1;
+        long start = System.nanoTime();
+        return gitHubToolsService.fetchAllPages(owner, repo, fromPage)
+                // Snapshot appends are blocking file I/O
+                .publishOn(Schedulers.boundedElastic())
+                .map(page -> {
+                    String watermark = state.watermark();
+                    if (page.number() == 1 && !page.pullRequests().isEmpty()) {
+                        // Newest first: later updates move a pull request ahead of the pages
+                        // still to load, and the incremental sync from here picks them up
+                        watermark = page.pullRequests().get(0).updatedAt();
+                    }
+                    List<PullRequestSummary> changed = index.apply(page.pullRequests());
+                    store.append(owner, repo, changed);
+                    state = new PullRequestSnapshotStore.SyncState(watermark, page.number(), false);
+                    store.saveSyncState(owner, repo, state);
+                    return changed.size();
+                })
+                .reduce(0, Integer::sum)
+                .map(changed -> {
+                    state = new PullRequestSnapshotStore.SyncState(state.watermark(), state.loadedPages(), true);
+                    store.saveSyncState(owner, repo, state);
+                    index.markReady();
+                    compactIfNeeded();
+                    logger.info("Loaded {}/{} from GitHub: pages {}-{}, {} changed in {} ms", owner, repo,
+                            fromPage, state.loadedPages(), changed, (System.nanoTime() - start) / 1_000_000);
+                    return changed;
+                });
+    }
+
+    /**
+     * Fetches the pull requests updated since the last sync and applies them.
+     * Emits the number of records that changed.
+     */
+    Mono<Integer> sync() {
+        String since = state.watermark();
+        return gitHubToolsService.fetchUpdatedSince(owner, repo, since, etag)
+                // Snapshot appends are blocking file I/O
+                .publishOn(Schedulers.boundedElastic())
+                .map(result -> {
+                    if (result.notModified()) {
+                        logger.debug("PR sync of {}/{}: not modified", owner, repo);
+                        return 0;
+                    }
+                    etag = result.etag();
+                    String watermark = since;
+                    for (PullRequestSummary pullRequest : result.pullRequests()) {
+                        String updatedAt = pullRequest.updatedAt();
+                        if (updatedAt != null && (watermark == null || updatedAt.compareTo(watermark) > 0)) {
+                            watermark = updatedAt;
+                        }
+                    }
+                    List<PullRequestSummary> changed = index.apply(result.pullRequests());
+                    store.append(owner, repo, changed);
+                    if (!Objects.equals(watermark, since)) {
+                        // Saved after the append: a crash in between refetches rather than skips
+                        state = new PullRequestSnapshotStore.SyncState(watermark, state.loadedPages(), true);
+                        store.saveSyncState(owner, repo, state);
+                    }
+                    index.markReady();
+                    compactIfNeeded();
+                    logger.debug("PR sync of {}/{}: {} fetched, {} changed",
+                            owner, repo, result.pullRequests().size(), changed.size());
+                    return changed.size();
+                });
+    }
+
+    private void compactIfNeeded() {
+        // Counts webhook appends too
+        int stored = store.storedRecords(owner, repo);
+        if (stored > MIN_RECORDS_BEFORE_COMPACTION && stored > 2 * index.size()) {
+            // Listed under the store's lock, which webhook appends also take
+            store.rewrite(owner, repo, () -> index.list("all"));
+            logger.info("Compacted PR snapshot of {}/{}: {} -> {} records",
+                    owner, repo, stored, store.storedRecords(owner, repo));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ticker != null) {
+            ticker.dispose();
+        }
+    }
+}
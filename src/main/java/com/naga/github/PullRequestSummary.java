@@ -0,0 +1,16 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The pull request fields returned by the GitHub tools.
+ */
+public record PullRequestSummary(
+        int number,
+        String title,
+        String state,
+        String author,
+        @JsonProperty("created_at") String createdAt,
+        @JsonProperty("updated_at") String updatedAt,
+        String url) {
+}
@@ -0,0 +1,146 @@
+package com.naga.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Applies GitHub {@code pull_request} webhook deliveries to {@link PullRequestIndex}.
+ * <p>
+ * Deliveries are authenticated with the {@code X-Hub-Signature-256} HMAC of the raw body
+ * under {@code github.webhook.secret}. Each event replaces the one pull request it carries,
+ * unless the index already holds a more recent version, and the change is appended to the
+ * snapshot. Events for other repositories are ignored. Missed deliveries are repaired by
+ * the periodic sync in {@link PullRequestSnapshotSync}.
+ */
+@Component
+public class PullRequestWebhookHandler {
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestWebhookHandler.class);
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+
+    /**
+     * Outcome of a delivery, also used as the {@code outcome} tag of {@code github.webhook.events}.
+     */
+    public enum Outcome {
+        APPLIED, UNCHANGED, IGNORED
+    }
+
+    private final PullRequestIndex index;
+    private final PullRequestSnapshotStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final byte[] secret;
+    private final String owner;
+    private final String repo;
+
+    public PullRequestWebhookHandler(PullRequestIndex index,
+                                     PullRequestSnapshotStore store,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${github.webhook.secret:}") String secret,
+                                     @Value("${github.owner}") String owner,
+                                     @Value("${github.repo}") String repo) {
+        this.index = index;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.owner = owner;
+        this.repo = repo;
+    }
+
+    /**
+     * False when no webhook secret is configured; deliveries are then rejected.
+     */
+    public boolean isEnabled() {
+        return secret.length > 0;
+    }
+
+    /**
+     * Checks an {@code X-Hub-Signature-256} header ({@code sha256=<hex>}) against the body.
+     */
+    public boolean verify(String signature, byte[] body) {
+        if (!isEnabled() || signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(signature, SIGNATURE_PREFIX.length(), signature.length());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, sign(secret, body));
+    }
+
+    static byte[] sign(byte[] secret, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    /**
+     * Applies a verified delivery of the given {@code X-GitHub-Event} type.
+     */
+    public Outcome handle(String event, byte[] body) throws IOException {
+        Outcome outcome = apply(event, body);
+        meterRegistry.counter("github.webhook.events", "event", String.valueOf(event),
+                "outcome", outcome.name().toLowerCase()).increment();
+        return outcome;
+    }
+
+    private Outcome apply(String event, byte[] body) throws IOException {
+        if (!"pull_request".equals(event)) {
+            return Outcome.IGNORED;
+        }
+        JsonNode payload = objectMapper.readTree(body);
+        String repository = payload.path("repository").path("full_name").asText();
+        if (!repository.equalsIgnoreCase(owner + "/" + repo)) {
+            logger.debug("Ignoring pull_request event for {}", repository);
+            return Outcome.IGNORED;
+        }
+
+        PullRequestSummary pullRequest = summary(payload.path("pull_request"));
+        if (!index.apply(pullRequest)) {
+            return Outcome.UNCHANGED;
+        }
+        store.append(owner, repo, List.of(pullRequest));
+        logger.debug("Applied pull_request {} event for #{}", payload.path("action").asText(), pullRequest.number());
+        return Outcome.APPLIED;
+    }
+
+    private static PullRequestSummary summary(JsonNode pullRequest) {
+        if (!pullRequest.path("number").isInt()) {
+            throw new IllegalArgumentException("pull_request event without a pull_request.number");
+        }
+        return new PullRequestSummary(
+                pullRequest.path("number").asInt(),
+                text(pullRequest.path("title")),
+                text(pullRequest.path("state")),
+                text(pullRequest.path("user").path("login")),
+                text(pullRequest.path("created_at")),
+                text(pullRequest.path("updated_at")),
+                text(pullRequest.path("html_url")));
+    }
+
+    private static String text(JsonNode node) {
+        return node.isTextual() ? node.asText() : null;
+    }
+}
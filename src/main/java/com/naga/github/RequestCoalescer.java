@@ -0,0 +1,95 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing for upstream GitHub calls.
+ * Concurrent callers with an equal key share one in-flight request and all receive
+ * its result or error. A caller cancelling only detaches itself; the shared request
+ * keeps running for the others. Streamed calls are shared the same way, each caller
+ * receiving every item from the first, including those emitted before it joined.
+ */
+@Component
+public class RequestCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentHashMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Flux<?>> inFlightStreams = new ConcurrentHashMap<>();
+    private final Counter started;
+    private final Counter coalesced;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.started = meterRegistry.counter("github.upstream.calls", "coalesced", "false");
+        this.coalesced = meterRegistry.counter("github.upstream.calls", "coalesced", "true");
+        meterRegistry.gaugeMapSize("github.upstream.inflight", Tags.empty(), inFlight);
+        meterRegistry.gaugeMapSize("github.upstream.inflight.streams", Tags.empty(), inFlightStreams);
+    }
+
+    /**
+     * Runs the upstream call for the key, or joins the one already in flight.
+     *
+     * @param key      identifies equivalent calls; must implement equals/hashCode
+     * @param upstream creates the upstream call; only invoked by the first caller
+     * @return the shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(Object key, Supplier<Mono<T>> upstream) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                coalesced.increment();
+                logger.debug("Joining in-flight upstream call for {}", key);
+                return Mono.fromFuture(existing, true);
+            }
+
+            started.increment();
+            Mono.defer(upstream)
+                    .doFinally(signal -> inFlight.remove(key, created))
+                    .subscribe(created::complete, created::completeExceptionally, () -> created.complete(null));
+            return Mono.fromFuture(created, true);
+        });
+    }
+
+    /**
+     * Streams the upstream call for the key, or joins the stream already in flight and
+     * replays what it has emitted so far. The shared stream runs to completion even if
+     * every caller cancels, as {@link #execute} does.
+     *
+     * @param key      identifies equivalent calls; must implement equals/hashCode
+     * @param upstream creates the upstream stream; only invoked by the first caller
+     * @return the shared stream
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> stream(Object key, Supplier<Flux<T>> upstream) {
+        return Flux.defer(() -> {
+            Flux<?>[] created = new Flux<?>[1];
+            ConnectableFlux<T> shared = Flux.defer(upstream)
+                    .doFinally(signal -> inFlightStreams.remove(key, created[0]))
+                    .replay();
+            created[0] = shared;
+            Flux<T> existing = (Flux<T>) inFlightStreams.putIfAbsent(key, shared);
+            if (existing != null) {
+                coalesced.increment();
+                logger.debug("Joining in-flight upstream stream for {}", key);
+                return existing;
+            }
+
+            started.increment();
+            shared.connect();
+            return shared;
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package com.naga.github;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for a pull request's unified diff ({@code application/vnd.github.diff}).
+ * Splits the response buffers into lines as they arrive and summarizes each
+ * {@code diff --git} section into a {@link PullRequestFileSummary}, keeping its hunks within
+ * the {@link DiffBudget}. Only the current file and line are held; once the budget is full
+ * the body is cancelled.
+ */
+final class UnifiedDiffDecoder {
+
+    private final DiffBudget budget;
+    private final byte[] line = new byte[DiffBudget.MAX_LINE_LENGTH * 4];
+    private int lineLength;
+    private boolean lineCut;
+
+    private String path;
+    private String status;
+    private int additions;
+    private int deletions;
+    private StringBuilder patch;
+    private boolean patchFull;
+    private boolean truncated;
+    private boolean inHunk;
+
+    private UnifiedDiffDecoder(DiffBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Decodes a unified diff body until the budget is full. Each buffer is released once it has
+     * been split into lines.
+     */
+    static Flux<PullRequestFileSummary> decode(Flux<DataBuffer> body, DiffBudget budget) {
+        return Flux.defer(() -> {
+            UnifiedDiffDecoder decoder = new UnifiedDiffDecoder(budget);
+            // Not takeWhile: it drops the buffer that ends it without releasing it
+            return body.<DataBuffer>handle((buffer, sink) -> {
+                        if (budget.isFull()) {
+                            DataBufferUtils.release(buffer);
+                            sink.complete();
+                        } else {
+                            sink.next(buffer);
+                        }
+                    })
+                    .concatMapIterable(decoder::feed, 1)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.finish())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    private List<PullRequestFileSummary> feed(DataBuffer buffer) {
+        List<PullRequestFileSummary> decoded = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext() && !budget.isFull()) {
+                ByteBuffer bytes = iterator.next();
+                while (bytes.hasRemaining() && !budget.isFull()) {
+                    byte b = bytes.get();
+                    if (b == '\n') {
+                        endLine(decoded);
+                    } else if (lineLength < line.length) {
+                        line[lineLength++] = b;
+                    } else {
+                        lineCut = true;
+                    }
+                }
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return decoded;
+    }
+
+    private List<PullRequestFileSummary> finish() {
+        List<PullRequestFileSummary> decoded = new ArrayList<>();
+        if (lineLength > 0) {
+            endLine(decoded);
+        }
+        endFile(decoded);
+        return decoded;
+    }
+
+    private void endLine(List<PullRequestFileSummary> decoded) {
+        int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        boolean cut = lineCut;
+        lineLength = 0;
+        lineCut = false;
+
+        if (startsWith(length, "diff --git ")) {
+            endFile(decoded);
+            String header = new String(line, 0, length, StandardCharsets.UTF_8);
+            int target = header.lastIndexOf(" b/");
+            path = target >= 0 ? header.substring(target + 3) : header.substring("diff --git ".length());
+            if (!budget.addFile(path)) {
+                path = null;
+                return;
+            }
+            status = "modified";
+            patch = new StringBuilder();
+            return;
+        }
+        if (path == null) {
+            return;
+        }
+        if (!inHunk) {
+            if (startsWith(length, "new file mode")) {
+                status = "added";
+            } else if (startsWith(length, "deleted file mode")) {
+                status = "removed";
+            } else if (startsWith(length, "rename to ")) {
+                status = "renamed";
+            }
+        }
+        if (startsWith(length, "@@")) {
+            inHunk = true;
+        } else if (!inHunk) {
+            return;
+        } else if (length > 0 && line[0] == '+') {
+            additions++;
+        } else if (length > 0 && line[0] == '-') {
+            deletions++;
+        }
+        appendPatch(length, cut);
+    }
+
+    private void appendPatch(int length, boolean cut) {
+        if (patchFull) {
+            return;
+        }
+        String text = new String(line, 0, length, StandardCharsets.UTF_8);
+        if (text.length() > DiffBudget.MAX_LINE_LENGTH) {
+            text = text.substring(0, DiffBudget.MAX_LINE_LENGTH);
+            cut = true;
+        }
+        truncated |= cut;
+        if (!budget.addLine(patch, text)) {
+            patchFull = true;
+            truncated = true;
+        }
+    }
+
+    private void endFile(List<PullRequestFileSummary> decoded) {
+        if (path != null) {
+            decoded.add(new PullRequestFileSummary(path, status, additions, deletions,
+                    patch.isEmpty() ? null : patch.toString(), truncated));
+        }
+        path = null;
+        status = null;
+        additions = 0;
+        deletions = 0;
+        patch = null;
+        patchFull = false;
+        truncated = false;
+        inHunk = false;
+    }
+
+    private boolean startsWith(int length, String prefix) {
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
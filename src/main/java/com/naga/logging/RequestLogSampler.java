@@ -0,0 +1,28 @@
+package com.naga.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests write their per-request log lines. A fraction
+ * {@code mcp.logging.request-sample-rate} of requests is logged (1.0 logs every request,
+ * 0 none). Errors, warnings and lifecycle events are never sampled.
+ * <p>
+ * Callers check the level first and sample once per request, so a sampled request
+ * keeps all of its lines: {@code if (logger.isInfoEnabled() && sampler.sample()) ...}
+ */
+@Component
+public class RequestLogSampler {
+
+    private final double rate;
+
+    public RequestLogSampler(@Value("${mcp.logging.request-sample-rate:1.0}") double rate) {
+        this.rate = rate;
+    }
+
+    public boolean sample() {
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -1,23 +1,30 @@
 package com.naga.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtility {
 
-    @Value("${mcp.auth.jwt-secret}")
-    private String jwtSecret;
-
     @Value("${mcp.auth.jwt-ttl-seconds}")
     private long ttl;
 
@@ -28,11 +35,96 @@ public class JwtUtility {
     private String tokenIssuer;
 
     private final Key key;
+    private final JwtParser parser;
+    private final MessageDigest sha256;
+
+    /**
+     * Claims of tokens whose signature has already been verified, keyed by a SHA-256
+     * digest of the token. Each entry expires together with its token.
+     */
+    private final Cache<TokenDigest, Claims> verifiedTokens;
+    private final boolean verifiedTokenCacheEnabled;
+
+    /**
+     * Replacement tokens issued by {@link #refreshToken}, keyed by the digest of the token
+     * they replace. Concurrent requests carrying the same token share one signing call, and
+     * the entry is kept for a full refresh window, which outlives the old token, so each
+     * token is re-signed at most once.
+     */
+    private final Cache<TokenDigest, String> refreshedTokens;
 
-    public JwtUtility(@Value("${mcp.auth.jwt-secret}") String base64Secret) {
+    private final Timer cacheHits;
+    private final Timer cacheMisses;
+
+    public JwtUtility(@Value("${mcp.auth.jwt-secret}") String base64Secret,
+                      @Value("${mcp.auth.verified-token-cache.max-entries:10000}") long maxVerifiedTokens,
+                      @Value("${mcp.auth.refreshed-token-cache.max-entries:10000}") long maxRefreshedTokens,
+                      MeterRegistry meterRegistry) {
         this.key = Keys.hmacShaKeyFor(
                 base64Secret.getBytes(StandardCharsets.UTF_8)
         );
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        this.verifiedTokenCacheEnabled = maxVerifiedTokens > 0;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxVerifiedTokens)
+                .expireAfter(new Expiry<TokenDigest, Claims>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest digest, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest digest, Claims claims, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest digest, Claims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.refreshedTokens = Caffeine.newBuilder()
+                .maximumSize(maxRefreshedTokens)
+                .expireAfter(new Expiry<TokenDigest, String>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest digest, String refreshed, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(refreshWindow);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest digest, String refreshed, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest digest, String refreshed, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        this.cacheHits = Timer.builder("mcp.auth.token.verification")
+                .description("JWT verification latency")
+                .tag("cache", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Timer.builder("mcp.auth.token.verification")
+                .description("JWT verification latency")
+                .tag("cache", "miss")
+                .register(meterRegistry);
+        meterRegistry.gauge("mcp.auth.token.cache.size", verifiedTokens, Cache::estimatedSize);
     }
 
     public String generateToken(String subject) {
@@ -41,19 +133,45 @@ public class JwtUtility {
                 .setSubject(subject)
                 .setIssuer(tokenIssuer)
                 .setIssuedAt(Date.from(now))
-                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .setExpiration(Date.from(now.plusSeconds(ttl)))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. Tokens verified before are served from
+     * the verified-token cache until they expire; everything else goes through the parser,
+     * which throws for invalid or expired tokens.
+     */
     public Claims validate(String token) {
-        Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                //.setSigningKey(jwtSecret.getBytes())
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        if (!verifiedTokenCacheEnabled) {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            cacheMisses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        }
+
+        TokenDigest digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            cacheHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        }
+
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        cacheMisses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    /**
+     * Returns a new token for the subject of a token that has entered its refresh window.
+     * The token is signed once; later and concurrent calls with the same token get the same result.
+     */
+    public String refreshToken(String token, Claims claims) {
+        return refreshedTokens.get(digest(token), digest -> generateToken(claims.getSubject()));
     }
 
     public boolean shouldRefresh(Claims claims) {
@@ -62,4 +180,21 @@ public class JwtUtility {
                 .minusSeconds(refreshWindow)
                 .isBefore(Instant.now());
     }
+
+    private TokenDigest digest(String token) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = (MessageDigest) sha256.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * The 256-bit SHA-256 digest of a token, held as four longs.
+     */
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+    }
 }
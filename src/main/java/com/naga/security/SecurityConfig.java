@@ -1,5 +1,6 @@
 package com.naga.security;
 
+import com.naga.filter.AdmissionControlFilter;
 import com.naga.filter.JwtSlidingExpirationFilter;
 import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
@@ -14,9 +15,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtSlidingExpirationFilter jwtSlidingExpirationFilter;
+    private final AdmissionControlFilter admissionControlFilter;
 
-    public SecurityConfig(JwtSlidingExpirationFilter jwtSlidingExpirationFilter) {
+    public SecurityConfig(JwtSlidingExpirationFilter jwtSlidingExpirationFilter,
+                          AdmissionControlFilter admissionControlFilter) {
         this.jwtSlidingExpirationFilter = jwtSlidingExpirationFilter;
+        this.admissionControlFilter = admissionControlFilter;
     }
 
     @Bean
@@ -26,10 +30,14 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/mcp/auth/token", "/auth/**", "/actuator/**").permitAll()  // ← Add /mcp/auth/token
+                        // Webhook deliveries carry an HMAC signature instead of a JWT
+                        .requestMatchers("/github/webhook").permitAll()
                         .requestMatchers("/mcp/**").authenticated()
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtSlidingExpirationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtSlidingExpirationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Sheds over-budget subjects once they are known, before any handler runs
+                .addFilterAfter(admissionControlFilter, JwtSlidingExpirationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,202 @@
+package com.naga.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Registry of the connected {@code /mcp/sse} sessions.
+ * <p>
+ * A single ticker builds one heartbeat event per interval and fans the same instance out
+ * to every session, instead of each connection running its own timer. Each session has a
+ * bounded outbound queue; a client that falls so far behind that its queue overflows is
+ * evicted and its stream completed, so a slow consumer never holds more than
+ * {@code mcp.sse.session-queue-size} pending events. Server-initiated events can be pushed
+ * to one session, to every session of a subject, or to all sessions.
+ * <p>
+ * Spring MVC streams {@code text/event-stream} responses without an async request timeout;
+ * a session's lifetime is bounded here instead, by {@code mcp.sse.max-session-seconds}
+ * (0 = until the client leaves or is evicted). A session that reaches it is completed and
+ * the client reconnects.
+ */
+@Component
+public class SseSessionHub implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(SseSessionHub.class);
+
+    private static final int MAX_EMIT_ATTEMPTS = 64;
+
+    private final Map<String, SseSession> sessions = new ConcurrentHashMap<>();
+    private final int queueSize;
+    private final Duration maxSession;
+    private final Disposable ticker;
+
+    private final Counter evictions;
+
+    public SseSessionHub(MeterRegistry meterRegistry,
+                         @Value("${mcp.sse.heartbeat-interval-seconds:30}") long heartbeatIntervalSeconds,
+                         @Value("${mcp.sse.session-queue-size:32}") int queueSize,
+                         @Value("${mcp.sse.max-session-seconds:0}") long maxSessionSeconds) {
+        this.queueSize = queueSize;
+        this.maxSession = maxSessionSeconds > 0 ? Duration.ofSeconds(maxSessionSeconds) : null;
+        this.evictions = meterRegistry.counter("mcp.sse.evictions");
+        meterRegistry.gaugeMapSize("mcp.sse.sessions", Tags.empty(), sessions);
+
+        Duration interval = Duration.ofSeconds(heartbeatIntervalSeconds);
+        this.ticker = Flux.interval(interval, interval)
+                .subscribe(tick -> heartbeat());
+    }
+
+    /**
+     * Registers a new session for the subject and returns its event stream. The first
+     * event carries the session id; the session is removed when the stream terminates.
+     */
+    public Flux<ServerSentEvent<String>> connect(String subject) {
+        String id = UUID.randomUUID().toString();
+        SseSession session = new SseSession(id, subject, Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ServerSentEvent<String>>get(queueSize).get()));
+        sessions.put(id, session);
+        logger.info("SSE session {} connected for {} ({} sessions)", id, subject, sessions.size());
+
+        emit(session, ServerSentEvent.<String>builder("{\"sessionId\": \"" + id + "\"}")
+                .event("session")
+                .build());
+        Flux<ServerSentEvent<String>> events = session.events.asFlux()
+                .takeUntilOther(session.closed.asMono());
+        if (maxSession != null) {
+            events = events.take(maxSession);
+        }
+        return events
+                .doFinally(signal -> {
+                    if (sessions.remove(id, session)) {
+                        logger.info("SSE session {} disconnected ({})", id, signal);
+                    }
+                });
+    }
+
+    /**
+     * Sends the event to one session. Returns false if the session is gone or was evicted.
+     */
+    public boolean publish(String sessionId, ServerSentEvent<String> event) {
+        SseSession session = sessions.get(sessionId);
+        return session != null && emit(session, event);
+    }
+
+    /**
+     * Sends the event to every session of the subject and returns how many received it.
+     */
+    public int publishToSubject(String subject, ServerSentEvent<String> event) {
+        return publish(session -> Objects.equals(subject, session.subject()), event);
+    }
+
+    /**
+     * Sends the event to every session matching the selector and returns how many received it.
+     */
+    public int publish(Predicate<SseSession> selector, ServerSentEvent<String> event) {
+        int delivered = 0;
+        for (SseSession session : sessions.values()) {
+            if (selector.test(session) && emit(session, event)) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.dispose();
+        for (SseSession session : sessions.values()) {
+            session.closed.tryEmitEmpty();
+        }
+        sessions.clear();
+    }
+
+    private void heartbeat() {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        ServerSentEvent<String> event = ServerSentEvent.<String>builder("{\"timestamp\": \"" + Instant.now() + "\"}")
+                .event("heartbeat")
+                .build();
+        int delivered = publish(session -> true, event);
+        logger.debug("Heartbeat sent to {} SSE sessions", delivered);
+    }
+
+    private boolean emit(SseSession session, ServerSentEvent<String> event) {
+        Sinks.EmitResult result = session.events.tryEmitNext(event);
+        // The ticker and publishers may emit to the same session concurrently; retry briefly.
+        for (int attempt = 1; result == Sinks.EmitResult.FAIL_NON_SERIALIZED && attempt < MAX_EMIT_ATTEMPTS; attempt++) {
+            Thread.onSpinWait();
+            result = session.events.tryEmitNext(event);
+        }
+        switch (result) {
+            case OK:
+                return true;
+            case FAIL_OVERFLOW:
+                evict(session);
+                return false;
+            case FAIL_CANCELLED:
+            case FAIL_TERMINATED:
+                sessions.remove(session.id(), session);
+                return false;
+            default:
+                logger.debug("Dropped event for SSE session {}: {}", session.id(), result);
+                return false;
+        }
+    }
+
+    private void evict(SseSession session) {
+        if (sessions.remove(session.id(), session)) {
+            evictions.increment();
+            logger.warn("Evicting slow SSE session {} for {}: {} events pending",
+                    session.id(), session.subject(), queueSize);
+            // Completes the client's stream right away and drops its pending events.
+            session.closed.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * A connected SSE client.
+     */
+    public static final class SseSession {
+        private final String id;
+        private final String subject;
+        private final Sinks.Many<ServerSentEvent<String>> events;
+        private final Sinks.Empty<Void> closed = Sinks.empty();
+
+        private SseSession(String id, String subject, Sinks.Many<ServerSentEvent<String>> events) {
+            this.id = id;
+            this.subject = subject;
+            this.events = events;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String subject() {
+            return subject;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.naga.tools;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A tool method bound to its bean, with argument conversion precomputed at startup.
+ */
+public final class RegisteredTool {
+
+    /**
+     * Describes one tool parameter, as listed by {@code /mcp/tools/list}.
+     */
+    public record Parameter(String name, String type, String description, boolean required) {
+    }
+
+    private final String name;
+    private final String description;
+    private final List<Parameter> parameters;
+    private final MethodHandle invoker;
+    private final List<Function<Object, Object>> converters;
+    private final Scheduler blockingScheduler;
+
+    RegisteredTool(String name, String description, List<Parameter> parameters,
+                   MethodHandle invoker, List<Function<Object, Object>> converters,
+                   Scheduler blockingScheduler) {
+        this.name = name;
+        this.description = description;
+        this.parameters = List.copyOf(parameters);
+        this.invoker = invoker;
+        this.converters = List.copyOf(converters);
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public List<Parameter> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Invokes the tool with JSON-style arguments. Reactive results are returned as is
+     * (a Flux is collected to a list); tools returning plain values are called on the
+     * tool scheduler and their result is wrapped.
+     */
+    public Mono<Object> invoke(Map<String, Object> arguments) {
+        Mono<Object> invocation = Mono.defer(() -> {
+            Object result;
+            try {
+                result = call(arguments);
+            } catch (Throwable e) {
+                return Mono.error(e);
+            }
+            return toMono(result);
+        });
+        return blockingScheduler != null ? invocation.subscribeOn(blockingScheduler) : invocation;
+    }
+
+    /**
+     * Invokes the tool and emits its result item by item: a Flux as its elements arrive, a
+     * collection (or a Mono of one) element by element, any other value as a single item.
+     */
+    public Flux<Object> stream(Map<String, Object> arguments) {
+        Flux<Object> invocation = Flux.defer(() -> {
+            Object result;
+            try {
+                result = call(arguments);
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+            return toFlux(result);
+        });
+        return blockingScheduler != null ? invocation.subscribeOn(blockingScheduler) : invocation;
+    }
+
+    private Object call(Map<String, Object> arguments) throws Throwable {
+        Object[] args = new Object[parameters.size()];
+        for (int i = 0; i < args.length; i++) {
+            Parameter parameter = parameters.get(i);
+            Object value = arguments.get(parameter.name());
+            if (value == null && parameter.required()) {
+                throw new IllegalArgumentException(
+                        "Missing required argument '" + parameter.name() + "' for tool " + name);
+            }
+            args[i] = converters.get(i).apply(value);
+        }
+        return (Object) invoker.invokeExact(args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Object> toMono(Object result) {
+        if (result instanceof Mono<?> mono) {
+            return (Mono<Object>) mono;
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.collectList().cast(Object.class);
+        }
+        if (result instanceof Publisher<?> publisher) {
+            return Flux.from(publisher).collectList().cast(Object.class);
+        }
+        return Mono.justOrEmpty(result);
+    }
+
+    private static Flux<Object> toFlux(Object result) {
+        if (result instanceof Mono<?> mono) {
+            return mono.flatMapMany(RegisteredTool::items);
+        }
+        if (result instanceof Publisher<?> publisher) {
+            return Flux.from(publisher);
+        }
+        return result == null ? Flux.empty() : items(result);
+    }
+
+    private static Flux<Object> items(Object value) {
+        return value instanceof Collection<?> collection ? Flux.fromIterable(collection) : Flux.just(value);
+    }
+}
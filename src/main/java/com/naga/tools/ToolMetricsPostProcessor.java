@@ -0,0 +1,178 @@
+package com.naga.tools;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proxies every bean that declares tool methods so each tool call is measured, whether it
+ * arrives through the MCP transport, {@code /mcp/tools/call} or a REST controller.
+ * <p>
+ * Calls are timed as {@code mcp.tool.calls} (tags {@code tool} and {@code outcome}, with
+ * percentile histograms) and result sizes recorded as {@code mcp.tool.result.size}
+ * (elements for collections, 1 for a single value). Reactive results are timed per
+ * subscription, from subscribe until they complete, fail or are cancelled.
+ */
+@Component
+public class ToolMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ToolMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (!hasToolMethods(targetClass)) {
+            return bean;
+        }
+        ToolMetricsInterceptor interceptor = new ToolMetricsInterceptor(targetClass);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(targetClass.getClassLoader());
+    }
+
+    private static boolean hasToolMethods(Class<?> type) {
+        boolean[] found = {false};
+        ReflectionUtils.doWithMethods(type, method -> found[0] = true,
+                method -> ToolRegistry.toolName(method) != null);
+        return found[0];
+    }
+
+    private final class ToolMetricsInterceptor implements MethodInterceptor {
+        private static final String NOT_A_TOOL = "";
+
+        private final Class<?> targetClass;
+        private final Map<Method, String> toolNames = new ConcurrentHashMap<>();
+        private final Map<String, ToolMeters> meters = new ConcurrentHashMap<>();
+
+        ToolMetricsInterceptor(Class<?> targetClass) {
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String tool = toolNames.computeIfAbsent(invocation.getMethod(), method -> {
+                String name = ToolRegistry.toolName(ClassUtils.getMostSpecificMethod(method, targetClass));
+                return name != null ? name : NOT_A_TOOL;
+            });
+            if (tool.isEmpty()) {
+                return invocation.proceed();
+            }
+
+            ToolMeters toolMeters = meters.computeIfAbsent(tool, ToolMeters::new);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable e) {
+                record(toolMeters.error, start);
+                throw e;
+            }
+
+            // Each subscription is timed and counted on its own
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                    long subscribed = System.nanoTime();
+                    return mono
+                            .doOnSuccess(value -> toolMeters.success(subscribed, size(value)))
+                            .doOnError(e -> record(toolMeters.error, subscribed))
+                            .doOnCancel(() -> record(toolMeters.cancelled, subscribed));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                return Flux.defer(() -> {
+                    long subscribed = System.nanoTime();
+                    AtomicLong count = new AtomicLong();
+                    return flux
+                            .doOnNext(value -> count.incrementAndGet())
+                            .doOnComplete(() -> toolMeters.success(subscribed, count.get()))
+                            .doOnError(e -> record(toolMeters.error, subscribed))
+                            .doOnCancel(() -> record(toolMeters.cancelled, subscribed));
+                });
+            }
+            toolMeters.success(start, size(result));
+            return result;
+        }
+    }
+
+    private final class ToolMeters {
+        final Timer success;
+        final Timer error;
+        final Timer cancelled;
+        final DistributionSummary resultSize;
+
+        ToolMeters(String tool) {
+            MeterRegistry registry = meterRegistry.getObject();
+            this.success = timer(registry, tool, "success");
+            this.error = timer(registry, tool, "error");
+            this.cancelled = timer(registry, tool, "cancelled");
+            this.resultSize = DistributionSummary.builder("mcp.tool.result.size")
+                    .description("Items returned per tool call")
+                    .tag("tool", tool)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        void success(long startNanos, long size) {
+            record(success, startNanos);
+            resultSize.record(size);
+        }
+
+        private static Timer timer(MeterRegistry registry, String tool, String outcome) {
+            return Timer.builder("mcp.tool.calls")
+                    .description("MCP tool call latency")
+                    .tag("tool", tool)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static long size(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,275 @@
+package com.naga.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Registry of the {@link Tool} and {@link McpTool} methods on beans in the MCP tool packages.
+ * <p>
+ * Built once after all singletons exist: each tool method is bound to its bean as a
+ * {@link MethodHandle} with per-parameter converters, and the tool list and server info
+ * responses are serialized once into cached JSON bytes. Dispatching a call is a map lookup
+ * followed by a direct handle invocation.
+ */
+@Component
+public class ToolRegistry implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(ToolRegistry.class);
+
+    private final ListableBeanFactory beanFactory;
+    private final ObjectMapper objectMapper;
+    private final List<String> basePackages;
+    private final Scheduler toolScheduler;
+
+    @Value("${spring.ai.mcp.server.name:spring_boot_ai_mcp_server}")
+    private String serverName = "spring_boot_ai_mcp_server";
+
+    @Value("${spring.ai.mcp.server.version:1.0.0}")
+    private String serverVersion = "1.0.0";
+
+    private final Map<String, RegisteredTool> tools = new LinkedHashMap<>();
+    private byte[] toolListJson;
+    private byte[] serverInfoJson;
+
+    public ToolRegistry(ListableBeanFactory beanFactory,
+                        ObjectMapper objectMapper,
+                        @Value("${spring.ai.mcp.server.annotation-scanner.base-packages:com.naga.github}") String basePackages,
+                        @Qualifier("TOOL_SCHEDULER") Scheduler toolScheduler) {
+        this.beanFactory = beanFactory;
+        this.objectMapper = objectMapper;
+        this.toolScheduler = toolScheduler;
+        this.basePackages = Arrays.stream(basePackages.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName);
+            if (beanType != null && isToolPackage(ClassUtils.getUserClass(beanType))) {
+                register(beanFactory.getBean(beanName));
+            }
+        }
+        toolListJson = serialize(toolList());
+        serverInfoJson = serialize(serverInfo());
+        logger.info("Tool registry initialized with {} tools: {}", tools.size(), tools.keySet());
+    }
+
+    /**
+     * Returns the tool with the given name, or null if there is none.
+     */
+    public RegisteredTool find(String name) {
+        return name == null ? null : tools.get(name);
+    }
+
+    public Collection<RegisteredTool> tools() {
+        return tools.values();
+    }
+
+    /**
+     * The {@code /mcp/tools/list} response, serialized at startup.
+     */
+    public byte[] toolListJson() {
+        return toolListJson;
+    }
+
+    /**
+     * The {@code /mcp/info} response, serialized at startup.
+     */
+    public byte[] serverInfoJson() {
+        return serverInfoJson;
+    }
+
+    private boolean isToolPackage(Class<?> type) {
+        String packageName = type.getPackageName();
+        for (String basePackage : basePackages) {
+            if (packageName.equals(basePackage) || packageName.startsWith(basePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(Object bean) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        ReflectionUtils.doWithMethods(targetClass, method -> {
+            String name = toolName(method);
+            if (name == null) {
+                return;
+            }
+            Tool tool = method.getAnnotation(Tool.class);
+            String description = tool != null ? tool.description() : method.getAnnotation(McpTool.class).description();
+            if (tools.containsKey(name)) {
+                throw new IllegalStateException("Duplicate tool name '" + name + "' on " + targetClass.getName());
+            }
+            tools.put(name, bind(bean, AopUtils.selectInvocableMethod(method, bean.getClass()), method,
+                    name, description));
+        }, ReflectionUtils.USER_DECLARED_METHODS);
+    }
+
+    /**
+     * The tool name declared on a {@link Tool} or {@link McpTool} method (the method name
+     * when none is given), or null if the method is not a tool.
+     */
+    static String toolName(Method method) {
+        Tool tool = method.getAnnotation(Tool.class);
+        McpTool mcpTool = method.getAnnotation(McpTool.class);
+        if (tool == null && mcpTool == null) {
+            return null;
+        }
+        String name = tool != null ? tool.name() : mcpTool.name();
+        return name.isEmpty() ? method.getName() : name;
+    }
+
+    private RegisteredTool bind(Object bean, Method invocable, Method annotated, String name, String description) {
+        MethodHandle handle;
+        try {
+            int arity = invocable.getParameterCount();
+            handle = MethodHandles.publicLookup()
+                    .unreflect(invocable)
+                    .bindTo(bean)
+                    .asType(MethodType.genericMethodType(arity))
+                    .asSpreader(Object[].class, arity)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Tool method " + annotated + " is not accessible", e);
+        }
+
+        List<RegisteredTool.Parameter> parameters = new ArrayList<>();
+        List<Function<Object, Object>> converters = new ArrayList<>();
+        java.lang.reflect.Parameter[] methodParameters = annotated.getParameters();
+        for (int i = 0; i < methodParameters.length; i++) {
+            java.lang.reflect.Parameter parameter = methodParameters[i];
+            ToolParam toolParam = parameter.getAnnotation(ToolParam.class);
+            parameters.add(new RegisteredTool.Parameter(
+                    parameter.getName(),
+                    jsonType(parameter.getType()),
+                    toolParam != null ? toolParam.description() : "",
+                    toolParam == null || toolParam.required()));
+            converters.add(converter(ResolvableType.forMethodParameter(annotated, i)));
+        }
+        // Tools returning plain values may block; reactive tools are left on the caller's thread.
+        Scheduler blockingScheduler = Publisher.class.isAssignableFrom(annotated.getReturnType()) ? null : toolScheduler;
+        return new RegisteredTool(name, description, parameters, handle, converters, blockingScheduler);
+    }
+
+    private Function<Object, Object> converter(ResolvableType parameterType) {
+        Class<?> type = parameterType.toClass();
+        if (type == String.class) {
+            return value -> value == null ? null : value.toString();
+        }
+        if (type == int.class || type == Integer.class) {
+            Object absent = type.isPrimitive() ? 0 : null;
+            return value -> value == null ? absent
+                    : value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString());
+        }
+        if (type == long.class || type == Long.class) {
+            Object absent = type.isPrimitive() ? 0L : null;
+            return value -> value == null ? absent
+                    : value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+        }
+        if (type == double.class || type == Double.class) {
+            Object absent = type.isPrimitive() ? 0d : null;
+            return value -> value == null ? absent
+                    : value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            Object absent = type.isPrimitive() ? false : null;
+            return value -> value == null ? absent
+                    : value instanceof Boolean bool ? bool : Boolean.parseBoolean(value.toString());
+        }
+        JavaType javaType = objectMapper.constructType(parameterType.getType());
+        return value -> value == null ? null : objectMapper.convertValue(value, javaType);
+    }
+
+    private static String jsonType(Class<?> type) {
+        if (type == String.class || type.isEnum()) {
+            return "string";
+        }
+        if (type == int.class || type == Integer.class || type == long.class || type == Long.class) {
+            return "integer";
+        }
+        if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            return "number";
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return "boolean";
+        }
+        if (type.isArray() || Collection.class.isAssignableFrom(type)) {
+            return "array";
+        }
+        return "object";
+    }
+
+    private Map<String, Object> toolList() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (RegisteredTool tool : tools.values()) {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            for (RegisteredTool.Parameter parameter : tool.parameters()) {
+                parameters.put(parameter.name(), Map.of(
+                        "type", parameter.type(),
+                        "description", parameter.description(),
+                        "required", parameter.required()));
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", tool.name());
+            entry.put("description", tool.description());
+            entry.put("parameters", parameters);
+            list.add(entry);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("tools", list);
+        response.put("count", list.size());
+        return response;
+    }
+
+    private Map<String, Object> serverInfo() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", serverName);
+        info.put("version", serverVersion);
+        info.put("protocol", "SSE");
+        info.put("endpoint", "/mcp/sse");
+        info.put("toolCount", tools.size());
+        info.put("tools", List.copyOf(tools.keySet()));
+        info.put("status", "running");
+        return info;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize tool registry", e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.naga.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.naga.filter.SubjectAdmissionControl.Outcome.ADMITTED;
+import static com.naga.filter.SubjectAdmissionControl.Outcome.OVERLOADED;
+import static com.naga.filter.SubjectAdmissionControl.Outcome.RATE_LIMITED;
+import static com.naga.filter.SubjectAdmissionControl.Outcome.SUBJECT_BUSY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SubjectAdmissionControlTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SubjectAdmissionControl admissionControl(double ratePerSecond, int burst, int maxInFlightPerSubject,
+                                                     int maxInFlight, long idleSeconds, long maxSubjects) {
+        return new SubjectAdmissionControl(meterRegistry, ratePerSecond, burst, maxInFlightPerSubject, maxInFlight,
+                idleSeconds, maxSubjects, now::get);
+    }
+
+    /**
+     * Caps only: a rate that never limits.
+     */
+    private SubjectAdmissionControl capsOnly(int maxInFlightPerSubject, int maxInFlight) {
+        return admissionControl(1e9, 1_000_000, maxInFlightPerSubject, maxInFlight, 600, 100_000);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private double subjects() {
+        return meterRegistry.get("mcp.admission.subjects").gauge().value();
+    }
+
+    @Test
+    void burstIsAdmittedThenOneTokenPerInterval() {
+        SubjectAdmissionControl admissionControl = admissionControl(10, 3, 8, 200, 600, 100_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        }
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", false).outcome());
+
+        advanceMillis(99);
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", false).outcome());
+        advanceMillis(1);
+        assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", false).outcome());
+
+        // Sustained calls at the configured rate are all admitted
+        for (int i = 0; i < 50; i++) {
+            advanceMillis(100);
+            assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        }
+    }
+
+    @Test
+    void idleTimeRefillsAtMostTheBurst() {
+        SubjectAdmissionControl admissionControl = admissionControl(10, 3, 8, 200, 600, 100_000);
+        admissionControl.admit("a", false);
+
+        advanceMillis(60_000);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        }
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", false).outcome());
+    }
+
+    @Test
+    void rateLimitedCallIsToldWhenToRetry() {
+        SubjectAdmissionControl admissionControl = admissionControl(0.25, 1, 8, 200, 600, 100_000);
+        admissionControl.admit("a", false);
+
+        SubjectAdmissionControl.Admission limited = admissionControl.admit("a", false);
+        assertEquals(RATE_LIMITED, limited.outcome());
+        assertEquals(4, limited.retryAfterSeconds());
+
+        advanceMillis(2_500);
+        // 1.5 s left, rounded up
+        assertEquals(2, admissionControl.admit("a", false).retryAfterSeconds());
+    }
+
+    @Test
+    void subjectsHaveSeparateBuckets() {
+        SubjectAdmissionControl admissionControl = admissionControl(10, 1, 8, 200, 600, 100_000);
+
+        assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", false).outcome());
+        assertEquals(ADMITTED, admissionControl.admit("b", false).outcome());
+    }
+
+    @Test
+    void rateLimitedCallDoesNotHoldASlot() {
+        SubjectAdmissionControl admissionControl = admissionControl(10, 1, 1, 200, 600, 100_000);
+        admissionControl.admit("a", true).release();
+
+        assertEquals(RATE_LIMITED, admissionControl.admit("a", true).outcome());
+        advanceMillis(100);
+        assertEquals(ADMITTED, admissionControl.admit("a", true).outcome());
+    }
+
+    @Test
+    void inFlightCallsPerSubjectAreCapped() {
+        SubjectAdmissionControl admissionControl = capsOnly(2, 200);
+
+        SubjectAdmissionControl.Admission first = admissionControl.admit("a", true);
+        SubjectAdmissionControl.Admission second = admissionControl.admit("a", true);
+        assertEquals(ADMITTED, first.outcome());
+        assertEquals(ADMITTED, second.outcome());
+        assertEquals(SUBJECT_BUSY, admissionControl.admit("a", true).outcome());
+        assertEquals(ADMITTED, admissionControl.admit("b", true).outcome());
+
+        first.release();
+        // Releasing twice frees one slot, not two
+        first.release();
+        assertEquals(ADMITTED, admissionControl.admit("a", true).outcome());
+        assertEquals(SUBJECT_BUSY, admissionControl.admit("a", true).outcome());
+    }
+
+    @Test
+    void inFlightCallsOfAllSubjectsAreCapped() {
+        SubjectAdmissionControl admissionControl = capsOnly(8, 3);
+
+        SubjectAdmissionControl.Admission first = admissionControl.admit("a", true);
+        admissionControl.admit("b", true);
+        admissionControl.admit("c", true);
+        assertEquals(OVERLOADED, admissionControl.admit("d", true).outcome());
+        assertEquals(3.0, meterRegistry.get("mcp.admission.in_flight").gauge().value());
+
+        first.release();
+        assertEquals(ADMITTED, admissionControl.admit("d", true).outcome());
+    }
+
+    @Test
+    void streamsTakeTokensButNoSlots() {
+        SubjectAdmissionControl admissionControl = capsOnly(1, 2);
+
+        SubjectAdmissionControl.Admission held = admissionControl.admit("a", true);
+        assertEquals(ADMITTED, admissionControl.admit("a", false).outcome());
+        assertEquals(ADMITTED, admissionControl.admit("b", false).outcome());
+        assertEquals(SUBJECT_BUSY, admissionControl.admit("a", true).outcome());
+        assertEquals(1.0, meterRegistry.get("mcp.admission.in_flight").gauge().value());
+        held.release();
+    }
+
+    @Test
+    void subjectWithCallsInFlightIsNotExpired() {
+        SubjectAdmissionControl admissionControl = admissionControl(1e9, 1_000_000, 1, 200, 10, 100_000);
+        SubjectAdmissionControl.Admission held = admissionControl.admit("a", true);
+
+        advanceMillis(3_600_000);
+        admissionControl.cleanUp();
+        // A fresh bucket would have admitted this call past the cap
+        assertEquals(SUBJECT_BUSY, admissionControl.admit("a", true).outcome());
+
+        held.release();
+        advanceMillis(11_000);
+        admissionControl.cleanUp();
+        assertEquals(0.0, subjects());
+    }
+
+    @Test
+    void subjectWithCallsInFlightIsNotEvictedForSize() {
+        SubjectAdmissionControl admissionControl = admissionControl(1e9, 1_000_000, 1, 200, 600, 4);
+        SubjectAdmissionControl.Admission held = admissionControl.admit("a", true);
+
+        for (int i = 0; i < 100; i++) {
+            admissionControl.admit("other-" + i, false);
+            admissionControl.cleanUp();
+        }
+        assertEquals(SUBJECT_BUSY, admissionControl.admit("a", true).outcome());
+        // The pinned subject does not count against the idle ones
+        assertEquals(5.0, subjects());
+
+        held.release();
+        for (int i = 100; i < 110; i++) {
+            admissionControl.admit("other-" + i, false);
+            admissionControl.cleanUp();
+        }
+        assertEquals(4.0, subjects());
+    }
+}
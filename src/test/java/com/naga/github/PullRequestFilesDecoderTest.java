@@ -0,0 +1,94 @@
+package com.naga.github;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PullRequestFilesDecoderTest {
+
+    private static String file(String path, String jsonPatch) {
+        return "{\"sha\":\"a9c0f2d\",\"filename\":\"" + path + "\",\"status\":\"modified\","
+                + "\"additions\":2,\"deletions\":1,\"patch\":\"" + jsonPatch + "\"}";
+    }
+
+    /**
+     * The page cut into buffers of the given size, so tokens and lines span buffer boundaries.
+     */
+    private static Flux<DataBuffer> body(String json, int chunk) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int start = 0; start < bytes.length; start += chunk) {
+            int length = Math.min(chunk, bytes.length - start);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, start, start + length)));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static List<PullRequestFileSummary> decode(String json, int chunk, DiffBudget budget) {
+        return PullRequestFilesDecoder.decode(body(json, chunk), budget).collectList().block();
+    }
+
+    @Test
+    void patchesAreSplitIntoLinesAcrossBuffers() {
+        String json = "[" + file("a.java", "@@ -1,2 +1,3 @@\\n-old\\n+new\\n+more") + ","
+                + file("b.java", "@@ -1 +1 @@\\n+only\\n") + "]";
+
+        for (int chunk : new int[]{1, 7, 64, 4096}) {
+            List<PullRequestFileSummary> files = decode(json, chunk, new DiffBudget(1_000_000, 1_000));
+
+            assertEquals(List.of(
+                    new PullRequestFileSummary("a.java", "modified", 2, 1, "@@ -1,2 +1,3 @@\n-old\n+new\n+more\n", false),
+                    new PullRequestFileSummary("b.java", "modified", 2, 1, "@@ -1 +1 @@\n+only\n", false)),
+                    files, () -> "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void longLinesAreCut() {
+        String json = "[" + file("a.java", "+" + "x".repeat(3_000) + "\\n+short") + "]";
+
+        PullRequestFileSummary file = decode(json, 100, new DiffBudget(1_000_000, 1_000)).get(0);
+
+        assertEquals("+" + "x".repeat(DiffBudget.MAX_LINE_LENGTH - 1) + "\n+short\n", file.patch());
+        assertTrue(file.truncated());
+    }
+
+    @Test
+    void patchStopsAtTheFirstLineOverBudget() {
+        StringBuilder patch = new StringBuilder();
+        for (int line = 0; line < 1_000; line++) {
+            patch.append("+line ").append(line).append("\\n");
+        }
+        String json = "[" + file("large.java", patch.toString()) + "," + file("next.java", "+next") + "]";
+
+        List<PullRequestFileSummary> files = decode(json, 256, new DiffBudget(1_000_000, 10));
+
+        assertEquals(10, files.get(0).patch().lines().count());
+        assertTrue(files.get(0).truncated());
+        // The line budget is spent, but the next file is still listed
+        assertEquals("next.java", files.get(1).path());
+        assertNull(files.get(1).patch());
+        assertTrue(files.get(1).truncated());
+    }
+
+    @Test
+    void filesPastTheByteBudgetAreLeftOut() {
+        String json = "[" + file("a.java", "+a") + "," + file("b.java", "+b") + "]";
+
+        List<PullRequestFileSummary> files = decode(json, 16, new DiffBudget(150, 1_000));
+
+        assertEquals(List.of("a.java"), files.stream().map(PullRequestFileSummary::path).toList());
+        assertFalse(files.get(0).truncated());
+    }
+}
@@ -0,0 +1,173 @@
+package com.naga.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PullRequestSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "fix", "add", "update", "cache", "timeout", "retry", "auth", "token", "webhook", "search"
+    };
+    private static final long START = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+
+    private static PullRequestSummary pullRequest(int number, String title, String state, String author) {
+        String created = Instant.ofEpochSecond(START + number * 3_600L).toString();
+        return new PullRequestSummary(number, title, state, author, created, created,
+                "https://github.com/o/r/pull/" + number);
+    }
+
+    private static List<PullRequestSummary> corpus(int size) {
+        Random random = new Random(7);
+        List<PullRequestSummary> pullRequests = new ArrayList<>(size);
+        for (int number = 1; number <= size; number++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0, words = 1 + random.nextInt(4); w < words; w++) {
+                // Skewed, so "fix" is common and "search" rare
+                int word = (int) Math.min(WORDS.length - 1, Math.abs(random.nextGaussian()) * WORDS.length / 3);
+                title.append(w == 0 ? "" : " ").append(WORDS[word]);
+            }
+            pullRequests.add(pullRequest(number, title.toString(), random.nextInt(4) == 0 ? "open" : "closed",
+                    "user" + random.nextInt(20)));
+        }
+        // The index must not depend on the order of its input
+        List<PullRequestSummary> shuffled = new ArrayList<>(pullRequests);
+        Collections.shuffle(shuffled, random);
+        return shuffled;
+    }
+
+    /**
+     * Scores every pull request the way the index documents it: summed idf of the distinct
+     * query tokens in the title, ties going to the newer one.
+     */
+    private static List<PullRequestSummary> bruteForce(List<PullRequestSummary> pullRequests,
+                                                       PullRequestSearchIndex.Query query) {
+        List<String> tokens = PullRequestSearchIndex.tokenize(query.text()).stream().distinct().toList();
+        List<Float> idf = new ArrayList<>();
+        List<String> present = new ArrayList<>();
+        for (String token : tokens) {
+            long documents = pullRequests.stream()
+                    .filter(pullRequest -> PullRequestSearchIndex.tokenize(pullRequest.title()).contains(token))
+                    .count();
+            if (documents > 0) {
+                present.add(token);
+                idf.add((float) Math.log(1 + (double) pullRequests.size() / documents));
+            }
+        }
+        record Scored(PullRequestSummary pullRequest, float score) {
+        }
+        List<Scored> scored = new ArrayList<>();
+        for (PullRequestSummary pullRequest : pullRequests) {
+            if (query.state() != null && !query.state().equals("all") && !query.state().equals(pullRequest.state())) {
+                continue;
+            }
+            if (query.author() != null && !query.author().equals(pullRequest.author())) {
+                continue;
+            }
+            List<String> title = PullRequestSearchIndex.tokenize(pullRequest.title());
+            float score = 0f;
+            for (int t = 0; t < present.size(); t++) {
+                if (title.contains(present.get(t))) {
+                    score += idf.get(t);
+                }
+            }
+            if (score > 0f) {
+                scored.add(new Scored(pullRequest, score));
+            }
+        }
+        scored.sort(Comparator.comparing(Scored::score).reversed()
+                .thenComparing(s -> s.pullRequest().createdAt(), Comparator.reverseOrder()));
+        return scored.stream().limit(query.limit()).map(Scored::pullRequest).toList();
+    }
+
+    @Test
+    void rankedResultsMatchBruteForce() {
+        List<PullRequestSummary> pullRequests = corpus(3_000);
+        PullRequestSearchIndex index = PullRequestSearchIndex.build(pullRequests);
+
+        for (String text : List.of("fix", "retry timeout", "search webhook fix", "cache cache auth", "missing")) {
+            for (String state : List.of("all", "open")) {
+                for (String author : new String[]{null, "user3"}) {
+                    PullRequestSearchIndex.Query query = new PullRequestSearchIndex.Query(text, author, state,
+                            null, null, 10);
+                    assertEquals(bruteForce(pullRequests, query), index.search(query).pullRequests(),
+                            () -> "query " + query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void moreMatchingWordsRankAboveNewer() {
+        PullRequestSearchIndex index = PullRequestSearchIndex.build(List.of(
+                pullRequest(1, "retry on timeout", "closed", "a"),
+                pullRequest(2, "retry once", "open", "b"),
+                pullRequest(3, "unrelated change", "open", "c"),
+                pullRequest(4, "timeout handling", "open", "d")));
+
+        PullRequestSearchResults results = index.search(
+                new PullRequestSearchIndex.Query("retry timeout", null, "all", null, null, 10));
+
+        assertEquals(List.of(1, 4, 2), results.pullRequests().stream().map(PullRequestSummary::number).toList());
+        assertEquals(3, results.totalMatches());
+        assertTrue(results.totalExact());
+    }
+
+    @Test
+    void commonWordStopsEarlyWithNewestHits() {
+        List<PullRequestSummary> pullRequests = new ArrayList<>();
+        for (int number = 1; number <= 1_000; number++) {
+            pullRequests.add(pullRequest(number, "fix bug " + number, "open", "a"));
+        }
+        PullRequestSearchIndex index = PullRequestSearchIndex.build(pullRequests);
+
+        PullRequestSearchResults results = index.search(
+                new PullRequestSearchIndex.Query("fix", null, "all", null, null, 3));
+
+        assertEquals(List.of(1_000, 999, 998),
+                results.pullRequests().stream().map(PullRequestSummary::number).toList());
+        // Stopped once no older pull request could outrank the three held
+        assertFalse(results.totalExact());
+        assertTrue(results.totalMatches() < 1_000);
+    }
+
+    @Test
+    void filtersWithoutTextReturnNewestInRange() {
+        List<PullRequestSummary> pullRequests = corpus(500);
+        PullRequestSearchIndex index = PullRequestSearchIndex.build(pullRequests);
+        long from = START + 100 * 3_600L;
+        long to = START + 200 * 3_600L;
+
+        PullRequestSearchResults results = index.search(
+                new PullRequestSearchIndex.Query(null, null, "open", from, to, 5));
+
+        List<PullRequestSummary> expected = pullRequests.stream()
+                .filter(pullRequest -> pullRequest.state().equals("open"))
+                .filter(pullRequest -> pullRequest.number() >= 100 && pullRequest.number() <= 200)
+                .sorted(Comparator.comparing(PullRequestSummary::number).reversed())
+                .toList();
+        assertEquals(expected.subList(0, 5), results.pullRequests());
+        assertEquals(expected.size(), results.totalMatches());
+        assertTrue(results.totalExact());
+    }
+
+    @Test
+    void unknownAuthorMatchesNothing() {
+        PullRequestSearchIndex index = PullRequestSearchIndex.build(corpus(100));
+
+        PullRequestSearchResults results = index.search(
+                new PullRequestSearchIndex.Query("fix", "nobody", "all", null, null, 10));
+
+        assertEquals(0, results.totalMatches());
+        assertEquals(List.of(), results.pullRequests());
+    }
+}
@@ -0,0 +1,41 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PullRequestSearchServiceTest {
+
+    private static PullRequestSummary pullRequest(int number, String title, String updatedAt) {
+        return new PullRequestSummary(number, title, "open", "author", "2024-01-0" + number + "T00:00:00Z",
+                updatedAt, "https://github.com/o/r/pull/" + number);
+    }
+
+    private static List<Integer> numbers(PullRequestSearchResults results) {
+        return results.pullRequests().stream().map(PullRequestSummary::number).toList();
+    }
+
+    @Test
+    void searchesTheLoadedIndexAndSeesEveryChange() {
+        PullRequestIndex index = new PullRequestIndex(new SimpleMeterRegistry());
+        index.apply(List.of(pullRequest(1, "retry timeout", "2024-01-01T00:00:00Z"),
+                pullRequest(2, "add cache", "2024-01-02T00:00:00Z")));
+        index.markReady();
+        // With the index loaded GitHub is never consulted
+        PullRequestSearchService service = new PullRequestSearchService(null, index, "o", "r", 20, 100);
+
+        assertEquals(List.of(1), numbers(service.searchPullRequests("retry", null, null, null, null, null).block()));
+        assertEquals(List.of(1), numbers(service.searchPullRequests("retry", null, null, null, null, null).block()));
+
+        // A webhook-style update of a single record is picked up by the next search
+        index.apply(pullRequest(2, "retry cache", "2024-01-03T00:00:00Z"));
+        assertEquals(List.of(2, 1), numbers(service.searchPullRequests("retry", null, null, null, null, null).block()));
+
+        index.apply(pullRequest(3, "retry again", "2024-01-04T00:00:00Z"));
+        assertEquals(List.of(3, 2, 1),
+                numbers(service.searchPullRequests("retry", null, null, null, null, null).block()));
+    }
+}
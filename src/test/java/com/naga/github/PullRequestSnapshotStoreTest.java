@@ -0,0 +1,212 @@
+package com.naga.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PullRequestSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private PullRequestSnapshotStore store() {
+        return new PullRequestSnapshotStore(true, directory.toString());
+    }
+
+    private Path file() {
+        return directory.resolve("owner__repo.prs");
+    }
+
+    private static PullRequestSummary pullRequest(int number, String updatedAt) {
+        return new PullRequestSummary(number, "Title " + number, "open", "author",
+                "2024-01-01T00:00:00Z", updatedAt, "https://github.com/owner/repo/pull/" + number);
+    }
+
+    private static int recordBytes(PullRequestSummary pullRequest) {
+        return PullRequestSnapshotStore.encode(List.of(pullRequest)).remaining();
+    }
+
+    @Test
+    void loadReturnsLatestRecordPerPullRequest() {
+        PullRequestSnapshotStore store = store();
+        store.append("owner", "repo", List.of(pullRequest(1, "2024-01-01T00:00:00Z"), pullRequest(2, "2024-01-02T00:00:00Z")));
+        store.append("owner", "repo", List.of(pullRequest(1, "2024-01-03T00:00:00Z")));
+
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(3, snapshot.records());
+        assertEquals(0, snapshot.discardedBytes());
+        assertEquals(List.of(pullRequest(1, "2024-01-03T00:00:00Z"), pullRequest(2, "2024-01-02T00:00:00Z")),
+                snapshot.pullRequests());
+    }
+
+    @Test
+    void loadOfMissingFileIsEmpty() {
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(0, snapshot.records());
+        assertEquals(List.of(), snapshot.pullRequests());
+    }
+
+    @Test
+    void loadDiscardsTruncatedTail() throws IOException {
+        PullRequestSnapshotStore store = store();
+        PullRequestSummary kept = pullRequest(1, "2024-01-01T00:00:00Z");
+        PullRequestSummary cut = pullRequest(2, "2024-01-02T00:00:00Z");
+        store.append("owner", "repo", List.of(kept, cut));
+        long intact = recordBytes(kept);
+        long size = Files.size(file());
+        // A write cut short by a crash: the second record lost its last bytes
+        try (RandomAccessFile raf = new RandomAccessFile(file().toFile(), "rw")) {
+            raf.setLength(size - 5);
+        }
+
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(List.of(kept), snapshot.pullRequests());
+        assertEquals(1, snapshot.records());
+        assertEquals(size - 5 - intact, snapshot.discardedBytes());
+        assertEquals(intact, Files.size(file()));
+    }
+
+    @Test
+    void loadDiscardsTailWithBadChecksum() throws IOException {
+        PullRequestSnapshotStore store = store();
+        PullRequestSummary first = pullRequest(1, "2024-01-01T00:00:00Z");
+        PullRequestSummary second = pullRequest(2, "2024-01-02T00:00:00Z");
+        PullRequestSummary third = pullRequest(3, "2024-01-03T00:00:00Z");
+        store.append("owner", "repo", List.of(first, second, third));
+        long intact = recordBytes(first);
+        long size = Files.size(file());
+        // Flip a payload byte of the second record; it and everything after it are dropped
+        try (RandomAccessFile raf = new RandomAccessFile(file().toFile(), "rw")) {
+            long position = intact + 20;
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(List.of(first), snapshot.pullRequests());
+        assertEquals(size - intact, snapshot.discardedBytes());
+        assertEquals(intact, Files.size(file()));
+    }
+
+    @Test
+    void loadDiscardsTailWithBadMagic() throws IOException {
+        PullRequestSnapshotStore store = store();
+        PullRequestSummary first = pullRequest(1, "2024-01-01T00:00:00Z");
+        store.append("owner", "repo", List.of(first));
+        long intact = Files.size(file());
+        // Garbage longer than a record header, e.g. a preallocated block that was never written
+        Files.write(file(), new byte[64], StandardOpenOption.APPEND);
+
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(List.of(first), snapshot.pullRequests());
+        assertEquals(64, snapshot.discardedBytes());
+        assertEquals(intact, Files.size(file()));
+    }
+
+    @Test
+    void appendsAfterRecoveryReadBack() throws IOException {
+        PullRequestSnapshotStore store = store();
+        PullRequestSummary kept = pullRequest(1, "2024-01-01T00:00:00Z");
+        store.append("owner", "repo", List.of(kept, pullRequest(2, "2024-01-02T00:00:00Z")));
+        try (RandomAccessFile raf = new RandomAccessFile(file().toFile(), "rw")) {
+            raf.setLength(Files.size(file()) - 1);
+        }
+        store.load("owner", "repo");
+
+        PullRequestSummary appended = pullRequest(3, "2024-01-03T00:00:00Z");
+        store.append("owner", "repo", List.of(appended));
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(List.of(kept, appended), snapshot.pullRequests());
+        assertEquals(2, snapshot.records());
+        assertEquals(0, snapshot.discardedBytes());
+    }
+
+    @Test
+    void rewriteReplacesAllRecords() {
+        PullRequestSnapshotStore store = store();
+        store.append("owner", "repo", List.of(pullRequest(1, "2024-01-01T00:00:00Z"),
+                pullRequest(1, "2024-01-02T00:00:00Z"), pullRequest(2, "2024-01-02T00:00:00Z")));
+
+        store.rewrite("owner", "repo", () -> List.of(pullRequest(1, "2024-01-02T00:00:00Z")));
+        PullRequestSnapshotStore.Snapshot snapshot = store().load("owner", "repo");
+
+        assertEquals(List.of(pullRequest(1, "2024-01-02T00:00:00Z")), snapshot.pullRequests());
+        assertEquals(1, snapshot.records());
+    }
+
+    @Test
+    void appendDuringRewriteIsKept() throws Exception {
+        PullRequestSnapshotStore store = store();
+        PullRequestSummary listed = pullRequest(1, "2024-01-01T00:00:00Z");
+        PullRequestSummary appended = pullRequest(2, "2024-01-02T00:00:00Z");
+        store.append("owner", "repo", List.of(listed));
+        CountDownLatch listing = new CountDownLatch(1);
+
+        Thread rewrite = new Thread(() -> store.rewrite("owner", "repo", () -> {
+            listing.countDown();
+            return List.of(listed);
+        }));
+        rewrite.start();
+        listing.await();
+        // Taken after the list: waits for the rewrite instead of being overwritten by it
+        store.append("owner", "repo", List.of(appended));
+        rewrite.join();
+
+        assertEquals(List.of(listed, appended), store().load("owner", "repo").pullRequests());
+    }
+
+    @Test
+    void storedRecordsCountsLoadsAppendsAndRewrites() {
+        PullRequestSnapshotStore store = store();
+        store.append("owner", "repo", List.of(pullRequest(1, "2024-01-01T00:00:00Z"),
+                pullRequest(1, "2024-01-02T00:00:00Z")));
+        assertEquals(2, store.storedRecords("owner", "repo"));
+
+        PullRequestSnapshotStore reopened = store();
+        reopened.load("owner", "repo");
+        reopened.append("owner", "repo", List.of(pullRequest(2, "2024-01-03T00:00:00Z")));
+        assertEquals(3, reopened.storedRecords("owner", "repo"));
+
+        reopened.rewrite("owner", "repo", () -> List.of(pullRequest(1, "2024-01-02T00:00:00Z"),
+                pullRequest(2, "2024-01-03T00:00:00Z")));
+        assertEquals(2, reopened.storedRecords("owner", "repo"));
+    }
+
+    @Test
+    void nullFieldsRoundTrip() {
+        PullRequestSummary pullRequest = new PullRequestSummary(7, null, "closed", null, null, null, null);
+        store().append("owner", "repo", List.of(pullRequest));
+
+        assertEquals(List.of(pullRequest), store().load("owner", "repo").pullRequests());
+    }
+
+    @Test
+    void syncStateRoundTrips() {
+        PullRequestSnapshotStore store = store();
+        assertNull(store.loadSyncState("owner", "repo").watermark());
+
+        PullRequestSnapshotStore.SyncState state =
+                new PullRequestSnapshotStore.SyncState("2024-01-03T00:00:00Z", 12, false);
+        store.saveSyncState("owner", "repo", state);
+
+        assertEquals(state, store().loadSyncState("owner", "repo"));
+    }
+}
@@ -0,0 +1,220 @@
+package com.naga.github;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicBoolean upstreamCancelled = new AtomicBoolean();
+
+    /**
+     * An upstream call that stays in flight until the sink is completed, counting how often
+     * it is subscribed to and noting whether it was ever cancelled.
+     */
+    private Mono<String> pending(Sinks.One<String> sink) {
+        return sink.asMono()
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(() -> upstreamCancelled.set(true));
+    }
+
+    private Flux<String> pending(Sinks.Many<String> sink) {
+        return sink.asFlux()
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(() -> upstreamCancelled.set(true));
+    }
+
+    private double calls(boolean coalesced) {
+        return meterRegistry.get("github.upstream.calls").tag("coalesced", String.valueOf(coalesced)).counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("github.upstream.inflight").gauge().value();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneUpstreamSubscription() throws Exception {
+        Sinks.One<String> sink = Sinks.one();
+        int callers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            results.add(result);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                coalescer.execute("key", () -> pending(sink)).subscribe(result::complete, result::completeExceptionally);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, subscriptions.get());
+        assertEquals(1.0, inFlight());
+        sink.tryEmitValue("value");
+
+        for (CompletableFuture<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1.0, calls(false));
+        assertEquals(callers - 1.0, calls(true));
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Mono<String> a = coalescer.execute("a", () -> pending(first));
+        Mono<String> b = coalescer.execute("b", () -> pending(second));
+        first.tryEmitValue("first");
+        second.tryEmitValue("second");
+
+        assertEquals("first", a.block(WAIT));
+        assertEquals("second", b.block(WAIT));
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheOthers() throws Exception {
+        Sinks.One<String> sink = Sinks.one();
+        CompletableFuture<String> kept = new CompletableFuture<>();
+        Disposable cancelled = coalescer.execute("key", () -> pending(sink)).subscribe();
+        coalescer.execute("key", () -> pending(sink)).subscribe(kept::complete, kept::completeExceptionally);
+
+        cancelled.dispose();
+        assertFalse(upstreamCancelled.get());
+        sink.tryEmitValue("value");
+
+        assertEquals("value", kept.get(5, TimeUnit.SECONDS));
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void callRunsToCompletionWhenEveryCallerCancels() {
+        Sinks.One<String> sink = Sinks.one();
+        coalescer.execute("key", () -> pending(sink)).subscribe().dispose();
+        assertFalse(upstreamCancelled.get());
+
+        // A caller arriving while it is still in flight joins it
+        Mono<String> joined = coalescer.execute("key", () -> pending(sink));
+        CompletableFuture<String> result = joined.toFuture();
+        sink.tryEmitValue("value");
+
+        assertEquals("value", result.join());
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void failedCallIsNotCachedForTheNextCaller() {
+        Sinks.One<String> failing = Sinks.one();
+        CompletableFuture<String> first = coalescer.execute("key", () -> pending(failing)).toFuture();
+        CompletableFuture<String> joined = coalescer.execute("key", () -> pending(failing)).toFuture();
+        failing.tryEmitError(new IllegalStateException("upstream failed"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertThrows(ExecutionException.class, () -> joined.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, inFlight());
+
+        Sinks.One<String> succeeding = Sinks.one();
+        CompletableFuture<String> next = coalescer.execute("key", () -> pending(succeeding)).toFuture();
+        succeeding.tryEmitValue("value");
+
+        assertEquals("value", next.join());
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void completedCallIsNotReused() {
+        assertEquals("first", coalescer.execute("key", () -> Mono.just("first")).block(WAIT));
+        assertEquals("second", coalescer.execute("key", () -> Mono.just("second")).block(WAIT));
+        assertEquals(2.0, calls(false));
+        assertEquals(0.0, calls(true));
+    }
+
+    @Test
+    void lateStreamJoinerReplaysEarlierItems() {
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> first = new ArrayList<>();
+        coalescer.stream("key", () -> pending(sink)).subscribe(first::add);
+        sink.tryEmitNext("a");
+        sink.tryEmitNext("b");
+
+        List<String> late = new ArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        coalescer.stream("key", () -> pending(sink)).subscribe(late::add, done::completeExceptionally,
+                () -> done.complete(null));
+        sink.tryEmitNext("c");
+        sink.tryEmitComplete();
+
+        done.join();
+        assertEquals(List.of("a", "b", "c"), first);
+        assertEquals(List.of("a", "b", "c"), late);
+        assertEquals(1, subscriptions.get());
+        assertEquals(0.0, meterRegistry.get("github.upstream.inflight.streams").gauge().value());
+    }
+
+    @Test
+    void cancellingOneStreamCallerDoesNotCancelTheOthers() {
+        Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+        Disposable cancelled = coalescer.stream("key", () -> pending(sink)).subscribe();
+        List<String> kept = new ArrayList<>();
+        coalescer.stream("key", () -> pending(sink)).subscribe(kept::add);
+        sink.tryEmitNext("a");
+
+        cancelled.dispose();
+        assertFalse(upstreamCancelled.get());
+        sink.tryEmitNext("b");
+        sink.tryEmitComplete();
+
+        assertEquals(List.of("a", "b"), kept);
+    }
+
+    @Test
+    void failedStreamIsNotReusedByTheNextCaller() {
+        Sinks.Many<String> failing = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> first = coalescer.stream("key", () -> pending(failing));
+        CompletableFuture<List<String>> result = first.collectList().toFuture();
+        failing.tryEmitNext("a");
+        failing.tryEmitError(new IllegalStateException("upstream failed"));
+        assertThrows(Exception.class, result::join);
+
+        List<String> next = coalescer.stream("key", () -> Flux.just("x", "y")).collectList().block(WAIT);
+
+        assertEquals(List.of("x", "y"), next);
+        assertEquals(2.0, calls(false));
+    }
+}
@@ -0,0 +1,96 @@
+package com.naga.tools;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolMetricsPostProcessorTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    public static class Tools {
+        @Tool(name = "listing")
+        public Mono<List<String>> listing() {
+            return Mono.just(List.of("a", "b", "c"));
+        }
+
+        @Tool(name = "stream")
+        public Flux<String> stream() {
+            return Flux.just("a", "b", "c");
+        }
+
+        @Tool(name = "failing")
+        public Flux<String> failing() {
+            return Flux.error(new IllegalStateException("failed"));
+        }
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Tools tools = instrumented();
+
+    private Tools instrumented() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        ToolMetricsPostProcessor postProcessor =
+                new ToolMetricsPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class));
+        return (Tools) postProcessor.postProcessAfterInitialization(new Tools(), "tools");
+    }
+
+    private Timer timer(String tool, String outcome) {
+        return meterRegistry.get("mcp.tool.calls").tag("tool", tool).tag("outcome", outcome).timer();
+    }
+
+    private DistributionSummary resultSize(String tool) {
+        return meterRegistry.get("mcp.tool.result.size").tag("tool", tool).summary();
+    }
+
+    @Test
+    void reactiveCallIsTimedFromSubscription() throws InterruptedException {
+        Mono<List<String>> result = tools.listing();
+        // Queued before anyone subscribes, e.g. waiting for a batch slot
+        Thread.sleep(300);
+        result.block(WAIT);
+
+        Timer success = timer("listing", "success");
+        assertEquals(1, success.count());
+        assertTrue(success.max(TimeUnit.MILLISECONDS) < 300, () -> "timed " + success.max(TimeUnit.MILLISECONDS));
+        assertEquals(3.0, resultSize("listing").max());
+    }
+
+    @Test
+    void eachSubscriptionIsTimedAndCountedOnItsOwn() {
+        Flux<String> result = tools.stream();
+        result.collectList().block(WAIT);
+        result.collectList().block(WAIT);
+        result.take(1).blockLast(WAIT);
+
+        assertEquals(2, timer("stream", "success").count());
+        assertEquals(1, timer("stream", "cancelled").count());
+        // Re-subscribing does not add to the first subscription's count
+        assertEquals(2, resultSize("stream").count());
+        assertEquals(6.0, resultSize("stream").totalAmount());
+        assertEquals(3.0, resultSize("stream").max());
+    }
+
+    @Test
+    void failedStreamIsTimedAsError() {
+        Flux<String> result = tools.failing();
+        result.onErrorResume(e -> Flux.empty()).blockLast(WAIT);
+        result.onErrorResume(e -> Flux.empty()).blockLast(WAIT);
+
+        assertEquals(2, timer("failing", "error").count());
+    }
+}